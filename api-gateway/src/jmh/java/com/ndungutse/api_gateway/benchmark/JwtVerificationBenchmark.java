@@ -0,0 +1,103 @@
+package com.ndungutse.api_gateway.benchmark;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ndungutse.api_gateway.security.HmacJwtVerifier;
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+// Compares the jjwt parser chain the gateway used per request with HmacJwtVerifier.
+// Run with: mvn -Pjmh test-compile exec:exec -Djmh.include=JwtVerification
+// ops/sec is the primary score, bytes per op is reported as gc.alloc.rate.norm.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGhhdC1pcy0zMi1ieXRlcy1sb25n";
+
+    private String token;
+    private SecretKey precomputedKey;
+    private HmacJwtVerifier verifier;
+
+    @Setup
+    public void setUp() {
+        precomputedKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        verifier = new HmacJwtVerifier(precomputedKey);
+        token = Jwts.builder()
+                .subject("42")
+                .issuedAt(new Date())
+                .claim("email", "customer@example.com")
+                .claim("fullName", "Customer full name")
+                .claim("role", "ROLE_CUSTOMER")
+                .claim("userId", 42L)
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(precomputedKey)
+                .compact();
+    }
+
+    // The previous JwtFilter path: decode the secret, build a parser, parse and read four claims
+    @Benchmark
+    public Object jjwtParserPerRequest() {
+        Claims claims = Jwts.parser()
+                .verifyWith((SecretKey) key())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return new JwtClaims(
+                claims.get("userId", Integer.class),
+                claims.get("role", String.class),
+                claims.get("email", String.class),
+                claims.get("fullName", String.class),
+                claims.getExpiration().getTime());
+    }
+
+    // jjwt with the key hoisted out, to separate key derivation from parsing cost
+    @Benchmark
+    public Object jjwtParserPrecomputedKey() {
+        Claims claims = Jwts.parser()
+                .verifyWith(precomputedKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return new JwtClaims(
+                claims.get("userId", Integer.class),
+                claims.get("role", String.class),
+                claims.get("email", String.class),
+                claims.get("fullName", String.class),
+                claims.getExpiration().getTime());
+    }
+
+    @Benchmark
+    public Object hmacJwtVerifier() {
+        return verifier.verify(token);
+    }
+
+    private Key key() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+}
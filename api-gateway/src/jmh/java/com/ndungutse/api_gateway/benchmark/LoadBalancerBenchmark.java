@@ -0,0 +1,100 @@
+package com.ndungutse.api_gateway.benchmark;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import com.ndungutse.api_gateway.loadbalancer.InstanceLoadTracker;
+import com.ndungutse.api_gateway.loadbalancer.PowerOfTwoChoicesLoadBalancer;
+
+// Request latency through round-robin vs power of two choices over four stub backends, one of them degraded.
+// Each backend serves 2 requests at a time and queues the rest, so latency includes the wait for a worker.
+// Run with: mvn -Pjmh test-compile exec:exec -Djmh.include=LoadBalancer
+// Compare the p0.99 rows of the two strategies.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class LoadBalancerBenchmark {
+
+    private static final String SERVICE_ID = "order-service";
+
+    @Param({ "roundRobin", "powerOfTwoChoices" })
+    public String strategy;
+
+    private final Map<ServiceInstance, StubBackend> backends = new HashMap<>();
+    private ReactorServiceInstanceLoadBalancer loadBalancer;
+    private InstanceLoadTracker tracker;
+
+    @Setup
+    public void setUp() {
+        ServiceInstance[] instances = new ServiceInstance[4];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = new DefaultServiceInstance("stub-" + i, SERVICE_ID, "10.0.0." + i, 8080, false);
+            // stub-0 is a GC-pausing or noisy-neighbour instance
+            backends.put(instances[i], new StubBackend(2, Duration.ofMillis(i == 0 ? 10 : 1)));
+        }
+        ObjectProvider<ServiceInstanceListSupplier> suppliers = ServiceInstanceListSuppliers.toProvider(SERVICE_ID,
+                instances);
+        tracker = new InstanceLoadTracker(Duration.ofSeconds(10), Duration.ofSeconds(1));
+        loadBalancer = "roundRobin".equals(strategy)
+                ? new RoundRobinLoadBalancer(suppliers, SERVICE_ID)
+                : new PowerOfTwoChoicesLoadBalancer(suppliers, SERVICE_ID, tracker);
+    }
+
+    // Same bookkeeping as a routed request: choose, call the instance, report the outcome
+    @Benchmark
+    public Object request() {
+        ServiceInstance instance = loadBalancer.choose().block().getServer();
+        long start = System.nanoTime();
+        tracker.started(instance);
+        backends.get(instance).handle();
+        tracker.completed(instance, System.nanoTime() - start, false);
+        return instance;
+    }
+
+    private static final class StubBackend {
+        private final Semaphore workers;
+        private final long serviceNanos;
+
+        private StubBackend(int workers, Duration serviceTime) {
+            this.workers = new Semaphore(workers, true);
+            this.serviceNanos = serviceTime.toNanos();
+        }
+
+        void handle() {
+            workers.acquireUninterruptibly();
+            try {
+                LockSupport.parkNanos(serviceNanos);
+            } finally {
+                workers.release();
+            }
+        }
+    }
+}
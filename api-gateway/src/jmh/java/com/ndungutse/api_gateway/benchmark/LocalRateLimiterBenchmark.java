@@ -0,0 +1,58 @@
+package com.ndungutse.api_gateway.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ndungutse.api_gateway.filter.LocalRateLimiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Per-request cost of LocalRateLimiter: key building, bucket lookup and the GCRA CAS, with rates high
+// enough to never reject. The filter pays this once for the user bucket and once for the route bucket.
+// Run with: mvn -Pjmh test-compile exec:exec -Djmh.include=LocalRateLimiter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LocalRateLimiterBenchmark {
+
+    // Distinct users sending requests, 1 puts every thread on the same bucket
+    @Param({ "1", "10000" })
+    private int users;
+
+    private LocalRateLimiter rateLimiter;
+    private String[] userIds;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new LocalRateLimiter(new SimpleMeterRegistry(), 100_000, Duration.ofMinutes(10));
+
+        userIds = new String[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = String.valueOf(i);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        String user = userIds[ThreadLocalRandom.current().nextInt(users)];
+        return rateLimiter.tryAcquire("user:order-service:" + user, 1e9, 1_000_000);
+    }
+}
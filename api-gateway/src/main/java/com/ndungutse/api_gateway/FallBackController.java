@@ -3,15 +3,39 @@ package com.ndungutse.api_gateway;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.ndungutse.api_gateway.filter.CachedResponse;
+import com.ndungutse.api_gateway.filter.SnapshotStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @RestController
 public class FallBackController {
+    // RFC 7234 warn-code for a response served stale
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final SnapshotStore snapshotStore;
+    private final MeterRegistry meterRegistry;
+
+    public FallBackController(SnapshotStore snapshotStore, MeterRegistry meterRegistry) {
+        this.snapshotStore = snapshotStore;
+        this.meterRegistry = meterRegistry;
+    }
+
     @RequestMapping("/restaurant-fallback")
-    public ResponseEntity<Map<String, String>> restaurantFallback() {
+    public ResponseEntity<?> restaurantFallback(ServerWebExchange exchange) {
+        ResponseEntity<byte[]> stale = staleResponse(exchange);
+        if (stale != null) {
+            return stale;
+        }
         Map<String, String> response = new HashMap<>();
         response.put("message", "Restaurant service is temporarily unavailable. Please try again later.");
         response.put("status", "503 Service Unavailable");
@@ -20,4 +44,38 @@ public class FallBackController {
 
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
     }
+
+    @RequestMapping("/order-fallback")
+    public ResponseEntity<?> orderFallback(ServerWebExchange exchange) {
+        ResponseEntity<byte[]> stale = staleResponse(exchange);
+        if (stale != null) {
+            return stale;
+        }
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Order service is temporarily unavailable. Please try again later.");
+        response.put("status", "503 Service Unavailable");
+        response.put("error", "Service Unavailable");
+        response.put("path", "/order");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    // The last good response for this request, flagged as stale, or null when the route kept none
+    private ResponseEntity<byte[]> staleResponse(ServerWebExchange exchange) {
+        CachedResponse snapshot = snapshotStore.lookup(exchange);
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter("gateway.fallback.responses",
+                "route", route != null ? route.getId() : "unknown",
+                "result", snapshot != null ? "stale" : "unavailable").increment();
+        if (snapshot == null) {
+            return null;
+        }
+        return ResponseEntity.status(snapshot.status())
+                .headers(headers -> {
+                    headers.putAll(snapshot.headers());
+                    headers.set(HttpHeaders.WARNING, STALE_WARNING);
+                    headers.set(HttpHeaders.AGE, String.valueOf(snapshot.ageSeconds()));
+                })
+                .body(snapshot.body());
+    }
 }
@@ -0,0 +1,121 @@
+package com.ndungutse.api_gateway.aggregation;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ndungutse.api_gateway.config.DeadlineFilter;
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+// Fans out to the restaurant, order and notification services in parallel and combines their answers.
+// Each leg has its own timeout and a failing leg only blanks its own part of the document.
+// lb:// service URIs go through the gateway's load balancer, others are called directly.
+@Component
+public class HomeAggregator {
+
+    private final WebClient loadBalancedClient;
+    private final WebClient directClient;
+    private final String restaurantServiceUri;
+    private final String orderServiceUri;
+    private final String notificationServiceUri;
+    private final Duration legTimeout;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public HomeAggregator(WebClient.Builder webClientBuilder,
+            LoadBalancedExchangeFilterFunction loadBalancerFunction,
+            @Value("${gateway.home.restaurant-service-uri:lb://restaurant-service}") String restaurantServiceUri,
+            @Value("${gateway.home.order-service-uri:lb://order-service}") String orderServiceUri,
+            @Value("${gateway.home.notification-service-uri:http://localhost:8082}") String notificationServiceUri,
+            @Value("${gateway.home.leg-timeout:2s}") Duration legTimeout,
+            MeterRegistry meterRegistry) {
+        this(webClientBuilder.clone().filter(loadBalancerFunction).build(), webClientBuilder.clone().build(),
+                restaurantServiceUri, orderServiceUri, notificationServiceUri, legTimeout, meterRegistry);
+    }
+
+    HomeAggregator(WebClient loadBalancedClient, WebClient directClient, String restaurantServiceUri,
+            String orderServiceUri, String notificationServiceUri, Duration legTimeout, MeterRegistry meterRegistry) {
+        this.loadBalancedClient = loadBalancedClient;
+        this.directClient = directClient;
+        this.restaurantServiceUri = restaurantServiceUri;
+        this.orderServiceUri = orderServiceUri;
+        this.notificationServiceUri = notificationServiceUri;
+        this.legTimeout = legTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // clientBudget is the time the caller gave the whole request, or null
+    public Mono<HomeResponse> aggregate(JwtClaims claims, Duration clientBudget) {
+        Duration timeout = clientBudget != null && clientBudget.compareTo(legTimeout) < 0 ? clientBudget : legTimeout;
+        Mono<Leg> restaurants = leg("restaurants", restaurantServiceUri + "/api/v1/restaurants", claims, timeout);
+        Mono<Leg> orders = leg("orders", orderServiceUri + "/api/v1/orders/customer/{id}", claims, timeout);
+        Mono<Leg> notifications = leg("notifications",
+                notificationServiceUri + "/api/v1/notifications/recipient/{id}", claims, timeout);
+
+        // zip subscribes to all three at once, so the legs run in parallel
+        return Mono.zip(restaurants, orders, notifications).map(legs -> {
+            Map<String, String> errors = new LinkedHashMap<>();
+            for (Leg leg : new Leg[] { legs.getT1(), legs.getT2(), legs.getT3() }) {
+                if (leg.error() != null) {
+                    errors.put(leg.name(), leg.error());
+                }
+            }
+            return new HomeResponse(legs.getT1().body(), legs.getT2().body(), legs.getT3().body(), errors);
+        });
+    }
+
+    private Mono<Leg> leg(String name, String uriTemplate, JwtClaims claims, Duration timeout) {
+        boolean loadBalanced = uriTemplate.startsWith("lb://");
+        WebClient client = loadBalanced ? loadBalancedClient : directClient;
+        String target = loadBalanced ? "http://" + uriTemplate.substring("lb://".length()) : uriTemplate;
+
+        return client.get()
+                .uri(target, claims.userId())
+                .headers(claims::writeTo)
+                // The service stops working on the leg once the gateway stopped waiting for it
+                .header(DeadlineFilter.TIMEOUT_HEADER, String.valueOf(timeout.toMillis()))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout)
+                .map(body -> new Leg(name, body, null))
+                .defaultIfEmpty(new Leg(name, null, null))
+                .onErrorResume(e -> Mono.just(new Leg(name, null, describe(e))))
+                .doOnNext(leg -> meterRegistry.counter("gateway.home.legs", "leg", name, "result", result(leg))
+                        .increment());
+    }
+
+    // ok, timeout, unavailable, or error for a 4xx/5xx answer
+    private static String result(Leg leg) {
+        if (leg.error() == null) {
+            return "ok";
+        }
+        return leg.error().startsWith("status") ? "error" : leg.error();
+    }
+
+    private static String describe(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof WebClientResponseException response) {
+            return "status " + response.getStatusCode().value();
+        }
+        return "unavailable";
+    }
+
+    private record Leg(String name, JsonNode body, String error) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.ndungutse.api_gateway.aggregation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ndungutse.api_gateway.config.DeadlineFilter;
+import com.ndungutse.api_gateway.security.JwtClaims;
+import com.ndungutse.api_gateway.security.JwtClaimsResolver;
+
+import reactor.core.publisher.Mono;
+
+// Answered by the gateway itself: request mappings take precedence over gateway routes
+@RestController
+@RequestMapping("/api/v1/home")
+public class HomeController {
+
+    private final JwtClaimsResolver claimsResolver;
+    private final HomeAggregator homeAggregator;
+
+    public HomeController(JwtClaimsResolver claimsResolver, HomeAggregator homeAggregator) {
+        this.claimsResolver = claimsResolver;
+        this.homeAggregator = homeAggregator;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<HomeResponse>> home(ServerHttpRequest request) {
+        JwtClaims claims = claimsResolver.resolve(request);
+        if (claims == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return homeAggregator.aggregate(claims, DeadlineFilter.requestedBudget(request)).map(ResponseEntity::ok);
+    }
+}
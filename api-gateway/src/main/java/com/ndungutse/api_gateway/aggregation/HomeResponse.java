@@ -0,0 +1,15 @@
+package com.ndungutse.api_gateway.aggregation;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+// Everything the app's home screen needs in one document. A leg that failed is null and listed in
+// errors with the reason, the other legs are still returned.
+public record HomeResponse(JsonNode restaurants, JsonNode orders, JsonNode notifications,
+        Map<String, String> errors) {
+
+    public boolean isPartial() {
+        return !errors.isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.ndungutse.api_gateway.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import reactor.core.publisher.Mono;
+
+// Gives a request a time budget and forwards it as X-Request-Timeout (milliseconds left), so the
+// services can stop working on a request the gateway has already given up on. The budget is the route's
+// response-timeout metadata, shortened by a client's own header; requests with neither get no deadline.
+// A remaining duration rather than an absolute time keeps it independent of clock skew between hosts.
+// The deadline covers the wait for the response headers only, a response that started streaming is not cut off.
+// Long-running endpoints listed in gateway.deadline.exempt-paths ignore the route's timeout; only a client's
+// own header gives them a deadline.
+@Component
+public class DeadlineFilter implements GlobalFilter, Ordered {
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final List<PathPattern> exemptPaths;
+
+    public DeadlineFilter(
+            @Value("${gateway.deadline.exempt-paths:/api/v1/orders/restaurant/*/export}") List<String> exemptPaths) {
+        this.exemptPaths = exemptPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Duration budget = isExempt(exchange.getRequest()) ? null : routeTimeout(route);
+        Duration requested = requestedBudget(exchange.getRequest());
+        if (requested != null && (budget == null || requested.compareTo(budget) < 0)) {
+            budget = requested;
+        }
+        if (budget == null) {
+            return chain.filter(exchange);
+        }
+        if (budget.isZero()) {
+            return Mono.error(deadlineExceeded());
+        }
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .header(TIMEOUT_HEADER, String.valueOf(budget.toMillis()))
+                .build();
+        // Fires only if nothing was sent to the client yet
+        Mono<Long> headersDeadline = Mono.delay(budget)
+                .flatMap(tick -> exchange.getResponse().isCommitted() ? Mono.never() : Mono.just(tick));
+        return chain.filter(exchange.mutate().request(request).build())
+                .timeout(headersDeadline, Mono.error(DeadlineFilter::deadlineExceeded));
+    }
+
+    // The budget the caller asked for, or null when it sent none or an unparseable one
+    public static Duration requestedBudget(ServerHttpRequest request) {
+        String value = request.getHeaders().getFirst(TIMEOUT_HEADER);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofMillis(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean isExempt(ServerHttpRequest request) {
+        return exemptPaths.stream().anyMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()));
+    }
+
+    // The route's response-timeout, or null when it has none
+    private static Duration routeTimeout(Route route) {
+        Object timeout = route != null ? route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR) : null;
+        if (timeout instanceof Number millis && millis.longValue() > 0) {
+            return Duration.ofMillis(millis.longValue());
+        }
+        return null;
+    }
+
+    private static ResponseStatusException deadlineExceeded() {
+        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded");
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1; // Right inside RequestLatencyFilter
+    }
+}
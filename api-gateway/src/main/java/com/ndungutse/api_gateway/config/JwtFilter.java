@@ -1,70 +1,44 @@
 package com.ndungutse.api_gateway.config;
 
-import java.security.Key;
-
-import javax.crypto.SecretKey;
-
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import com.ndungutse.api_gateway.security.JwtClaims;
+import com.ndungutse.api_gateway.security.JwtClaimsResolver;
+
 import reactor.core.publisher.Mono;
 
 @Component
 public class JwtFilter implements GlobalFilter, Ordered {
 
-    @Value("${spring.security.jwt.secret}")
-    private String jwtSecret;
+    private final JwtClaimsResolver claimsResolver;
+
+    public JwtFilter(JwtClaimsResolver claimsResolver) {
+        this.claimsResolver = claimsResolver;
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange,
             org.springframework.cloud.gateway.filter.GatewayFilterChain chain) {
-        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String jwt = authHeader.substring(7);
-            try {
-                Claims claims = Jwts.parser()
-                        .verifyWith((SecretKey) key())
-                        .build()
-                        .parseSignedClaims(jwt)
-                        .getPayload();
-
-                Integer userId = claims.get("userId", Integer.class);
-                String role = claims.get("role", String.class);
-                String email = claims.get("email", String.class);
-                String fullName = claims.get("fullName", String.class);
-
-                ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                        .header("X-User-Id", String.valueOf(userId))
-                        .header("X-User-Role", role)
-                        .header("X-User-Email", email)
-                        .header("X-User-FullName", fullName)
-                        .build();
-
-                return chain.filter(exchange.mutate().request(mutatedRequest).build());
-
-            } catch (JwtException ex) {
-                // Let it pass or handle it (e.g., block unauthorized requests)
-                // Optional: Return 401 directly
-            }
+        JwtClaims claims = claimsResolver.resolve(exchange.getRequest());
+
+        // X-User-* headers only ever come from a verified token. Client-sent ones are dropped, so invalid
+        // or missing tokens pass through without any
+        ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    JwtClaims.removeFrom(headers);
+                    if (claims != null) {
+                        claims.writeTo(headers);
+                    }
+                })
+                .build();
+        if (claims != null) {
+            exchange.getAttributes().put(JwtClaims.EXCHANGE_ATTR, claims);
         }
-
-        return chain.filter(exchange);
-    }
-
-    // Key encription
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return chain.filter(exchange.mutate().request(mutatedRequest).build());
     }
 
     @Override
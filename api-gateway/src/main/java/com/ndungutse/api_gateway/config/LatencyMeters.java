@@ -0,0 +1,77 @@
+package com.ndungutse.api_gateway.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Latency timers shared by the gateway's metrics filters, tagged by route, status and backend instance.
+// Timers are resolved through nested maps keyed by strings the exchange already holds and a status-indexed
+// array, so recording a request after warm-up allocates nothing.
+@Component
+public class LatencyMeters {
+    public static final String REQUESTS = "gateway.requests";
+    public static final String UPSTREAM = "gateway.upstream.requests";
+
+    private static final String NONE = "none";
+    private static final int STATUS_SLOTS = 600;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration[] slos;
+    private final double[] percentiles;
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Timer[]>>> timers =
+            new ConcurrentHashMap<>();
+
+    public LatencyMeters(MeterRegistry meterRegistry,
+            @Value("${gateway.metrics.slo:50ms,100ms,250ms,500ms,1s,2s}") Duration[] slos,
+            @Value("${gateway.metrics.percentiles:0.5,0.99,0.999}") double[] percentiles) {
+        this.meterRegistry = meterRegistry;
+        this.slos = slos;
+        this.percentiles = percentiles;
+    }
+
+    public void record(String name, ServerWebExchange exchange, long nanos) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+
+        String routeId = route != null ? route.getId() : NONE;
+        // After load balancing the request URL points at the chosen instance
+        String instance = requestUrl != null && requestUrl.getAuthority() != null ? requestUrl.getAuthority() : NONE;
+        int statusCode = status != null && status.value() < STATUS_SLOTS ? status.value() : 0;
+
+        timer(name, routeId, instance, statusCode).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, String routeId, String instance, int status) {
+        Timer[] byStatus = timers
+                .computeIfAbsent(name, n -> new ConcurrentHashMap<>())
+                .computeIfAbsent(routeId, r -> new ConcurrentHashMap<>())
+                .computeIfAbsent(instance, i -> new Timer[STATUS_SLOTS]);
+        Timer timer = byStatus[status];
+        if (timer == null) {
+            // Racing threads get the same meter back from the registry
+            timer = Timer.builder(name)
+                    .tag("route", routeId)
+                    .tag("instance", instance)
+                    .tag("status", status == 0 ? NONE : String.valueOf(status))
+                    .publishPercentiles(percentiles)
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(slos)
+                    .register(meterRegistry);
+            byStatus[status] = timer;
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ndungutse.api_gateway.config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+import com.ndungutse.api_gateway.loadbalancer.PowerOfTwoChoicesConfiguration;
+
+// Every lb:// route picks instances by power of two choices instead of round-robin
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PowerOfTwoChoicesConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,32 @@
+package com.ndungutse.api_gateway.config;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+// Total time spent in the gateway per request, JWT verification and every filter included
+@Component
+public class RequestLatencyFilter implements GlobalFilter, Ordered {
+
+    private final LatencyMeters latencyMeters;
+
+    public RequestLatencyFilter(LatencyMeters latencyMeters) {
+        this.latencyMeters = latencyMeters;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> latencyMeters.record(LatencyMeters.REQUESTS, exchange, System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE; // Wraps JwtFilter (-1) and everything after it
+    }
+}
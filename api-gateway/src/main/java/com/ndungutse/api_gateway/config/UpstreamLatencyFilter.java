@@ -0,0 +1,33 @@
+package com.ndungutse.api_gateway.config;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+// Time from the backend instance being chosen until its response has been relayed to the client
+@Component
+public class UpstreamLatencyFilter implements GlobalFilter, Ordered {
+
+    private final LatencyMeters latencyMeters;
+
+    public UpstreamLatencyFilter(LatencyMeters latencyMeters) {
+        this.latencyMeters = latencyMeters;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> latencyMeters.record(LatencyMeters.UPSTREAM, exchange, System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
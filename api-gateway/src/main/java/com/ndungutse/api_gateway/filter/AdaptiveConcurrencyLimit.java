@@ -0,0 +1,80 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Concurrency limit for one route that follows the backend's latency, in the spirit of Netflix's
+// gradient limiter: a slow average RTT tracks the backend's normal latency, and each response moves
+// the limit by the gradient between that average and its own RTT, plus sqrt(limit) of headroom.
+// Errors and timeouts cut the limit multiplicatively (AIMD). Admission is a CAS on the in-flight count.
+public class AdaptiveConcurrencyLimit {
+    private static final double LONG_RTT_ALPHA = 0.05;
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    // Admit a request if fewer than limit are in flight, returns the in-flight count including it or -1
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public synchronized void onSuccess(long rttNanos, int inFlightAtStart) {
+        rttNanos = Math.max(1, rttNanos);
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * (1 - LONG_RTT_ALPHA) + rttNanos * LONG_RTT_ALPHA;
+
+        // After a latency shift the average lags far behind, let it catch up faster
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // A route that is not using its limit tells us nothing about a higher one
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        update(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    public synchronized void onDropped() {
+        update(limit * backoffRatio);
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,72 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Buffers the backend body so it can be kept, then writes it on unchanged.
+// onBody runs before the response is committed, so it can still add headers.
+// At most maxBytes are held: a larger body is passed through as it streams and onBody is not called.
+public class BodyCaptureResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final long maxBytes;
+    private final Consumer<byte[]> onBody;
+
+    public BodyCaptureResponseDecorator(ServerHttpResponse delegate, long maxBytes, Consumer<byte[]> onBody) {
+        super(delegate);
+        this.maxBytes = maxBytes;
+        this.onBody = onBody;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (getHeaders().getContentLength() > maxBytes) {
+            return getDelegate().writeWith(body);
+        }
+
+        // Splits the body in two at the buffer that goes over the limit: the head is held, and if there is
+        // a second part, the head and the rest are written through uncaptured
+        AtomicLong seen = new AtomicLong();
+        AtomicBoolean overLimit = new AtomicBoolean();
+        AtomicReference<List<DataBuffer>> head = new AtomicReference<>(List.of());
+        return Flux.<DataBuffer>from(body)
+                .windowUntil(buffer -> seen.addAndGet(buffer.readableByteCount()) > maxBytes
+                        && overLimit.compareAndSet(false, true), true)
+                .index()
+                .concatMap(part -> part.getT1() == 0
+                        ? part.getT2().collectList().doOnNext(head::set).then()
+                        : getDelegate().writeWith(Flux.concat(Flux.fromIterable(head.get()), part.getT2())))
+                .then(Mono.defer(() -> overLimit.get() ? Mono.empty() : capture(head.get())))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private Mono<Void> capture(List<DataBuffer> buffers) {
+        byte[] bytes = new byte[buffers.stream().mapToInt(DataBuffer::readableByteCount).sum()];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+
+        onBody.accept(bytes);
+        return getDelegate().writeWith(Mono.just(getDelegate().bufferFactory().wrap(bytes)));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWith(Flux.from(body).flatMapSequential(part -> part));
+    }
+}
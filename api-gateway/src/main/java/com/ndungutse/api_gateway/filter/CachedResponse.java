@@ -0,0 +1,47 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+
+import reactor.core.publisher.Mono;
+
+// A fully buffered backend response that can be replayed to other clients
+public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long storedAtMillis) {
+
+    // Per-connection headers are not replayed, Content-Length is recomputed from the body
+    private static final List<String> NOT_REPLAYED = List.of(HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONTENT_LENGTH, "Keep-Alive", HttpHeaders.SET_COOKIE);
+
+    public static CachedResponse of(HttpStatusCode status, HttpHeaders responseHeaders, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        responseHeaders.forEach((name, values) -> {
+            if (NOT_REPLAYED.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.put(name, List.copyOf(values));
+            }
+        });
+        return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body, System.currentTimeMillis());
+    }
+
+    public String etag() {
+        return headers.getETag();
+    }
+
+    public long ageSeconds() {
+        return Math.max(0, (System.currentTimeMillis() - storedAtMillis) / 1000);
+    }
+
+    // Rough heap footprint, used as the cache weight
+    public int weight() {
+        return body.length + 64 * headers.size() + 64;
+    }
+
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+}
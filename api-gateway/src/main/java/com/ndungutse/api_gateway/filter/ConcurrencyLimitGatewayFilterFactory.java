@@ -0,0 +1,176 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.DispatcherHandler;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+// Route filter "ConcurrencyLimit": caps in-flight requests per route with an AdaptiveConcurrencyLimit.
+// Requests over the limit are shed before reaching the backend and forwarded to fallbackUri, the same
+// way the CircuitBreaker filter does, or answered with 503 when no fallback is configured.
+//
+//   filters:
+//     - name: ConcurrencyLimit
+//       args:
+//         fallbackUri: forward:/order-fallback
+//         initialLimit: 20
+//         maxLimit: 200
+@Component
+public class ConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ConcurrencyLimitGatewayFilterFactory.Config> {
+
+    private final ObjectProvider<DispatcherHandler> dispatcherHandlerProvider;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitGatewayFilterFactory(ObjectProvider<DispatcherHandler> dispatcherHandlerProvider,
+            MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.dispatcherHandlerProvider = dispatcherHandlerProvider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("fallbackUri");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "unknown";
+            RouteLimit routeLimit = limits.computeIfAbsent(routeId, id -> register(id, config));
+
+            int inFlight = routeLimit.limit.tryAcquire();
+            if (inFlight < 0) {
+                routeLimit.shed.increment();
+                return shed(exchange, config);
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                routeLimit.limit.release();
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                // Errors, cancellations (timeouts) and 5xx from the backend are overload signals
+                if (signal != SignalType.ON_COMPLETE || (status != null && status.is5xxServerError())) {
+                    routeLimit.limit.onDropped();
+                } else {
+                    routeLimit.limit.onSuccess(System.nanoTime() - start, inFlight);
+                }
+            });
+        };
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange, Config config) {
+        if (config.getFallbackUri() == null) {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        }
+
+        URI uri = exchange.getRequest().getURI();
+        boolean encoded = ServerWebExchangeUtils.containsEncodedParts(uri);
+        URI requestUrl = UriComponentsBuilder.fromUri(uri)
+                .host(null)
+                .port(null)
+                .uri(config.getFallbackUri())
+                .scheme(null)
+                .build(encoded)
+                .toUri();
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, requestUrl);
+
+        ServerHttpRequest request = exchange.getRequest().mutate().uri(requestUrl).build();
+        return ServerWebExchangeUtils.handle(dispatcherHandlerProvider.getObject(),
+                exchange.mutate().request(request).build());
+    }
+
+    private RouteLimit register(String routeId, Config config) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config.getInitialLimit(),
+                config.getMinLimit(), config.getMaxLimit(), config.getBackoffRatio());
+        Gauge.builder("gateway.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("route", routeId)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Counter shed = Counter.builder("gateway.concurrency.shed")
+                .tag("route", routeId)
+                .description("Requests shed because the route was at its concurrency limit")
+                .register(meterRegistry);
+        return new RouteLimit(limit, shed);
+    }
+
+    private record RouteLimit(AdaptiveConcurrencyLimit limit, Counter shed) {
+    }
+
+    public static class Config {
+        private URI fallbackUri;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+
+        public URI getFallbackUri() {
+            return fallbackUri;
+        }
+
+        public void setFallbackUri(URI fallbackUri) {
+            this.fallbackUri = fallbackUri;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.ndungutse.api_gateway.filter.HedgingGatewayFilterFactory.HedgePolicy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+// Sends GETs of routes with a Hedging filter itself, instead of NettyRoutingFilter: the request goes to the
+// instance the load balancer picked, and if it has not answered within the route's latency percentile, a
+// copy goes to another instance of the same service. The first response wins, the other call is cancelled.
+// Runs right after load balancing, so the primary instance is known and later filters see the request as routed.
+// Responses are buffered to pick a winner, so only small bodyless GETs are hedged: a response over
+// gateway.hedging.max-body-size is dropped and the request goes through the normal, streaming routing filter.
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    private final WebClient webClient;
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final MeterRegistry meterRegistry;
+    private final long maxBodyBytes;
+
+    public HedgingFilter(WebClient.Builder webClientBuilder, ReactiveDiscoveryClient discoveryClient,
+            ObjectProvider<List<HttpHeadersFilter>> headersFilters, MeterRegistry meterRegistry,
+            @Value("${gateway.hedging.max-body-size:256KB}") DataSize maxBodySize) {
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.webClient = webClientBuilder
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(Math.toIntExact(maxBodyBytes)))
+                .build();
+        this.discoveryClient = discoveryClient;
+        this.headersFilters = headersFilters;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HedgePolicy policy = exchange.getAttribute(HedgingGatewayFilterFactory.HEDGE_POLICY_ATTR);
+        URI primary = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (policy == null || primary == null || route == null || ServerWebExchangeUtils.isAlreadyRouted(exchange)
+                || !"lb".equals(route.getUri().getScheme()) || !isSmallRead(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        policy.onRequest();
+
+        String routeId = route.getId();
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.putAll(HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange));
+        requestHeaders.remove(HttpHeaders.HOST);
+
+        Mono<Call> primaryCall = policy.timePrimary(send(primary, requestHeaders));
+        Duration delay = policy.hedgeDelay();
+        Mono<Call> race = delay == null ? primaryCall
+                : Mono.firstWithValue(primaryCall, Mono.delay(delay).then(Mono.defer(() -> {
+                    if (!policy.tryHedge()) {
+                        meterRegistry.counter("gateway.hedging.budget.exhausted", "route", routeId).increment();
+                        return Mono.empty();
+                    }
+                    meterRegistry.counter("gateway.hedging.hedges", "route", routeId).increment();
+                    return alternate(route.getUri().getHost(), primary)
+                            .flatMap(uri -> send(uri, requestHeaders))
+                            .doOnNext(call -> meterRegistry.counter("gateway.hedging.wins", "route", routeId)
+                                    .increment());
+                })));
+
+        return race.timeout(timeout(policy, route), Mono.error(HedgingFilter::timedOut))
+                .flatMap(call -> {
+                    if (call.response() == null) {
+                        // Too large to buffer: send it again through the routing filter, which streams
+                        meterRegistry.counter("gateway.hedging.too.large", "route", routeId).increment();
+                        exchange.getAttributes().remove(ServerWebExchangeUtils.GATEWAY_ALREADY_ROUTED_ATTR);
+                        return chain.filter(exchange);
+                    }
+                    // Latency metrics and logs report the instance that actually answered
+                    exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, call.uri());
+                    return write(exchange, call.response());
+                });
+    }
+
+    // A GET without a body that does not ask for a stream
+    static boolean isSmallRead(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        if (request.getMethod() != HttpMethod.GET || headers.getContentLength() > 0
+                || headers.containsKey(HttpHeaders.TRANSFER_ENCODING)) {
+            return false;
+        }
+        return headers.getAccept().stream().noneMatch(accept -> !accept.isWildcardType()
+                && (accept.isCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                        || accept.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                        || accept.isCompatibleWith(MediaType.APPLICATION_OCTET_STREAM)));
+    }
+
+    // The hedge timeout, shortened by the route's response-timeout as NettyRoutingFilter would apply it
+    private static Duration timeout(HedgePolicy policy, Route route) {
+        if (route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR) instanceof Number millis
+                && millis.longValue() > 0 && Duration.ofMillis(millis.longValue()).compareTo(policy.timeout()) < 0) {
+            return Duration.ofMillis(millis.longValue());
+        }
+        return policy.timeout();
+    }
+
+    private static ResponseStatusException timedOut() {
+        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Upstream response timed out");
+    }
+
+    // A Call without a response when the body is over the size limit
+    private Mono<Call> send(URI uri, HttpHeaders headers) {
+        return webClient.get()
+                .uri(uri)
+                .headers(target -> target.addAll(headers))
+                .exchangeToMono(response -> {
+                    if (response.headers().contentLength().orElse(0) > maxBodyBytes) {
+                        return response.releaseBody().thenReturn(new Call(uri, null));
+                    }
+                    return response.toEntity(byte[].class).map(entity -> new Call(uri, entity));
+                })
+                .onErrorResume(DataBufferLimitException.class, e -> Mono.just(new Call(uri, null)));
+    }
+
+    // Same path and query on a different instance of the service, if there is one
+    private Mono<URI> alternate(String serviceId, URI primary) {
+        return discoveryClient.getInstances(serviceId)
+                .map(ServiceInstance::getUri)
+                .filter(uri -> !(uri.getHost().equals(primary.getHost()) && uri.getPort() == primary.getPort()))
+                .collectList()
+                .flatMap(candidates -> candidates.isEmpty() ? Mono.empty()
+                        : Mono.just(candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()))))
+                .map(instance -> UriComponentsBuilder.fromUri(primary)
+                        .scheme(instance.getScheme())
+                        .host(instance.getHost())
+                        .port(instance.getPort())
+                        .build(true)
+                        .toUri());
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ResponseEntity<byte[]> upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of),
+                upstream.getHeaders(), exchange, HttpHeadersFilter.Type.RESPONSE));
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        response.setStatusCode(upstream.getStatusCode());
+        response.getHeaders().putAll(headers);
+
+        byte[] body = upstream.getBody();
+        if (body == null) {
+            return response.setComplete();
+        }
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private record Call(URI uri, ResponseEntity<byte[]> response) {
+    }
+
+    @Override
+    public int getOrder() {
+        // After the load balancer and UpstreamLatencyFilter
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 2;
+    }
+}
@@ -0,0 +1,140 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+// Route filter "Hedging": opts an idempotent route into hedged reads. It only attaches the route's
+// HedgePolicy to the exchange; HedgingFilter sends the requests once the load balancer picked an instance.
+//
+//   filters:
+//     - Hedging=0.95, 5   # hedge after the route's p95, for at most 5% of requests
+@Component
+public class HedgingGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgingGatewayFilterFactory.Config> {
+    public static final String HEDGE_POLICY_ATTR = HedgingGatewayFilterFactory.class.getName() + ".policy";
+
+    public HedgingGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("percentile", "budgetPercent");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // One policy per route definition, shared by all its requests
+        HedgePolicy policy = new HedgePolicy(config);
+        return (exchange, chain) -> {
+            exchange.getAttributes().put(HEDGE_POLICY_ATTR, policy);
+            return chain.filter(exchange);
+        };
+    }
+
+    // Hedge delay from recent latency, and a budget that earns budgetPercent of a hedge per request
+    public static class HedgePolicy {
+        private static final long MILLI_TOKENS = 1000;
+
+        private final LatencyPercentileWindow latency;
+        private final Duration minDelay;
+        private final Duration timeout;
+        private final long tokensPerRequest;
+        private final long maxTokens;
+        private final AtomicLong tokens = new AtomicLong();
+
+        HedgePolicy(Config config) {
+            this.latency = new LatencyPercentileWindow(1024, config.getPercentile(), TimeUnit.SECONDS.toNanos(1));
+            this.minDelay = config.getMinDelay();
+            this.timeout = config.getTimeout();
+            this.tokensPerRequest = Math.round(config.getBudgetPercent() * MILLI_TOKENS / 100);
+            this.maxTokens = 10 * MILLI_TOKENS;
+        }
+
+        public void onRequest() {
+            tokens.accumulateAndGet(tokensPerRequest, (current, add) -> Math.min(maxTokens, current + add));
+        }
+
+        // Take one hedge from the budget if there is one left
+        public boolean tryHedge() {
+            while (true) {
+                long current = tokens.get();
+                if (current < MILLI_TOKENS) {
+                    return false;
+                }
+                if (tokens.compareAndSet(current, current - MILLI_TOKENS)) {
+                    return true;
+                }
+            }
+        }
+
+        public void recordLatency(long nanos) {
+            latency.record(nanos);
+        }
+
+        // Records how long the primary call was outstanding, also when a hedge won or the timeout cancelled it.
+        // Recording only answers would drop exactly the slow calls and pull the percentile down.
+        public <T> Mono<T> timePrimary(Mono<T> call) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return call.doFinally(signal -> recordLatency(System.nanoTime() - start));
+            });
+        }
+
+        // Null until the route has enough samples to know its percentile
+        public Duration hedgeDelay() {
+            long nanos = latency.percentileNanos();
+            return nanos < 0 ? null : Duration.ofNanos(Math.max(nanos, minDelay.toNanos()));
+        }
+
+        public Duration timeout() {
+            return timeout;
+        }
+    }
+
+    public static class Config {
+        private double percentile = 0.95;
+        private double budgetPercent = 5;
+        private Duration minDelay = Duration.ofMillis(10);
+        private Duration timeout = Duration.ofSeconds(10);
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
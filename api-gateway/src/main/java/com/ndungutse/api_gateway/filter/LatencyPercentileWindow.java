@@ -0,0 +1,56 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ring of the most recent latency samples for one route. The percentile is recomputed from a sorted copy
+// at most once per refresh interval, so reading it on every request costs a volatile read.
+public class LatencyPercentileWindow {
+    private final AtomicLongArray samples;
+    // Samples recorded so far. A long, so it does not wrap on a busy route
+    private final AtomicLong next;
+    private final double percentile;
+    private final long refreshNanos;
+
+    private volatile long cachedNanos = -1;
+    private volatile long computedAt;
+
+    public LatencyPercentileWindow(int size, double percentile, long refreshNanos) {
+        this(size, percentile, refreshNanos, 0);
+    }
+
+    LatencyPercentileWindow(int size, double percentile, long refreshNanos, long recorded) {
+        this.samples = new AtomicLongArray(size);
+        this.next = new AtomicLong(recorded);
+        this.percentile = percentile;
+        this.refreshNanos = refreshNanos;
+    }
+
+    public void record(long nanos) {
+        samples.set(Math.floorMod(next.getAndIncrement(), samples.length()), nanos);
+    }
+
+    // The configured percentile of recent samples, or -1 until enough samples were seen
+    public long percentileNanos() {
+        long now = System.nanoTime();
+        if (cachedNanos < 0 || now - computedAt > refreshNanos) {
+            cachedNanos = compute();
+            computedAt = now;
+        }
+        return cachedNanos;
+    }
+
+    private long compute() {
+        int count = (int) Math.min(next.get(), samples.length());
+        if (count < Math.min(20, samples.length())) {
+            return -1;
+        }
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+    }
+}
@@ -0,0 +1,71 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// In-process token buckets, so rate limiting needs no Redis.
+// Each bucket is a single AtomicLong holding the GCRA "theoretical arrival time": a permit is granted
+// with one CAS when that time, advanced by one emission interval, is no more than the burst ahead of now.
+// Buckets live in a bounded Caffeine map and are dropped after being idle.
+@Component
+public class LocalRateLimiter {
+    public static final String CACHE_NAME = "rate-limiter-buckets";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public LocalRateLimiter(MeterRegistry meterRegistry,
+            @Value("${gateway.rate-limiter.max-buckets:100000}") long maxBuckets,
+            @Value("${gateway.rate-limiter.idle-timeout:10m}") Duration idleTimeout) {
+        this(maxBuckets, idleTimeout, System::nanoTime);
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, CACHE_NAME);
+    }
+
+    LocalRateLimiter(long maxBuckets, Duration idleTimeout, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    // Take one permit from the bucket. Returns 0 when granted, otherwise the nanos until one will be.
+    // An idle bucket allows burstCapacity requests at once, then permitsPerSecond
+    public long tryAcquire(String key, double permitsPerSecond, int burstCapacity) {
+        long interval = (long) (NANOS_PER_SECOND / permitsPerSecond);
+        long tolerance = interval * burstCapacity;
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long bucketCount() {
+        return buckets.estimatedSize();
+    }
+}
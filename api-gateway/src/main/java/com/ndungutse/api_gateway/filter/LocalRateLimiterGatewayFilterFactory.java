@@ -0,0 +1,126 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+// Route filter "LocalRateLimiter": a bucket per user (as verified by JwtFilter, client address when
+// anonymous) and one shared bucket per route. Rates of 0 disable that bucket.
+//
+//   filters:
+//     - LocalRateLimiter=10, 20, 500, 1000   # user rate, user burst, route rate, route burst
+@Component
+public class LocalRateLimiterGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimiterGatewayFilterFactory.Config> {
+    private final LocalRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    public LocalRateLimiterGatewayFilterFactory(LocalRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("userReplenishRate", "userBurstCapacity", "routeReplenishRate", "routeBurstCapacity");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "unknown";
+
+            // User bucket first, so a throttled user does not use up the route's permits
+            if (config.getUserReplenishRate() > 0) {
+                long wait = rateLimiter.tryAcquire("user:" + routeId + ":" + userKey(exchange),
+                        config.getUserReplenishRate(), config.getUserBurstCapacity());
+                if (wait > 0) {
+                    return reject(exchange, routeId, "user", wait);
+                }
+            }
+            if (config.getRouteReplenishRate() > 0) {
+                long wait = rateLimiter.tryAcquire("route:" + routeId,
+                        config.getRouteReplenishRate(), config.getRouteBurstCapacity());
+                if (wait > 0) {
+                    return reject(exchange, routeId, "route", wait);
+                }
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    // The user JwtFilter verified, otherwise the client address. Never a client-sent header, which could
+    // be rotated for fresh buckets or set to someone else's id to drain theirs
+    private static String userKey(ServerWebExchange exchange) {
+        JwtClaims claims = JwtClaims.from(exchange);
+        if (claims != null) {
+            return String.valueOf(claims.userId());
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress != null ? "addr:" + remoteAddress.getAddress().getHostAddress() : JwtClaims.ANONYMOUS;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, String scope, long waitNanos) {
+        meterRegistry.counter("gateway.ratelimit.rejected", "route", routeId, "scope", scope).increment();
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    public static class Config {
+        private double userReplenishRate;
+        private int userBurstCapacity = 1;
+        private double routeReplenishRate;
+        private int routeBurstCapacity = 1;
+
+        public double getUserReplenishRate() {
+            return userReplenishRate;
+        }
+
+        public void setUserReplenishRate(double userReplenishRate) {
+            this.userReplenishRate = userReplenishRate;
+        }
+
+        public int getUserBurstCapacity() {
+            return userBurstCapacity;
+        }
+
+        public void setUserBurstCapacity(int userBurstCapacity) {
+            this.userBurstCapacity = userBurstCapacity;
+        }
+
+        public double getRouteReplenishRate() {
+            return routeReplenishRate;
+        }
+
+        public void setRouteReplenishRate(double routeReplenishRate) {
+            this.routeReplenishRate = routeReplenishRate;
+        }
+
+        public int getRouteBurstCapacity() {
+            return routeBurstCapacity;
+        }
+
+        public void setRouteBurstCapacity(int routeBurstCapacity) {
+            this.routeBurstCapacity = routeBurstCapacity;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+// Route filter "RequestCoalescing": identical GETs that arrive while one is already in flight wait for
+// that request's response instead of going upstream (single-flight). The first request is the leader;
+// its buffered response is replayed to every follower. Requests of a signed-in user only join requests
+// of the same user, as verified by JwtFilter. If the leader fails or has no body to share, followers go upstream themselves.
+//
+//   filters:
+//     - RequestCoalescing
+@Component
+public class RequestCoalescingGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+    private final MeterRegistry meterRegistry;
+    private final long maxBodyBytes;
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, RouteCounters> counters = new ConcurrentHashMap<>();
+
+    public RequestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry,
+            @Value("${gateway.response-capture.max-body-size:1MB}") DataSize maxBodySize) {
+        this.meterRegistry = meterRegistry;
+        this.maxBodyBytes = maxBodySize.toBytes();
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String key = request.getMethod() == HttpMethod.GET ? key(exchange.getAttribute(
+                    ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR), exchange) : null;
+            if (key == null) {
+                return chain.filter(exchange);
+            }
+            RouteCounters routeCounters = counters.computeIfAbsent(key.substring(0, key.indexOf(' ')),
+                    this::registerCounters);
+
+            Sinks.One<CachedResponse> flight = Sinks.one();
+            Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, flight);
+            if (leader != null) {
+                routeCounters.followers.increment();
+                return leader.asMono()
+                        .flatMap(shared -> {
+                            ServerWebExchangeUtils.setAlreadyRouted(exchange);
+                            return shared.writeTo(exchange.getResponse());
+                        })
+                        .onErrorResume(LeaderFailedException.class, e -> chain.filter(exchange));
+            }
+
+            routeCounters.leaders.increment();
+            ServerHttpResponse response = exchange.getResponse();
+            BodyCaptureResponseDecorator capture = new BodyCaptureResponseDecorator(response, maxBodyBytes, body -> {
+                // Later arrivals start a new flight instead of joining one that has already answered
+                inFlight.remove(key, flight);
+                flight.tryEmitValue(CachedResponse.of(response.getStatusCode(), response.getHeaders(), body));
+            });
+            return chain.filter(exchange.mutate().response(capture).build())
+                    .doFinally(signal -> {
+                        inFlight.remove(key, flight);
+                        flight.tryEmitError(new LeaderFailedException());
+                    });
+        };
+    }
+
+    // Route, path and query, plus the user JwtFilter verified. Null when the request must not be shared
+    private static String key(Route route, ServerWebExchange exchange) {
+        String user = JwtClaims.callerKey(exchange);
+        if (user == null) {
+            return null;
+        }
+        String routeId = route != null ? route.getId() : "unknown";
+        ServerHttpRequest request = exchange.getRequest();
+        String query = request.getURI().getRawQuery();
+        String path = request.getURI().getRawPath();
+        return routeId + " " + user + " " + (query == null ? path : path + "?" + query);
+    }
+
+    private RouteCounters registerCounters(String routeId) {
+        return new RouteCounters(
+                Counter.builder("gateway.coalescing.requests").tag("route", routeId).tag("role", "leader")
+                        .description("GETs sent upstream by the coalescing filter").register(meterRegistry),
+                Counter.builder("gateway.coalescing.requests").tag("route", routeId).tag("role", "follower")
+                        .description("GETs answered with another in-flight request's response")
+                        .register(meterRegistry));
+    }
+
+    private record RouteCounters(Counter leaders, Counter followers) {
+    }
+
+    // Signals followers that no shared response is coming
+    private static final class LeaderFailedException extends RuntimeException {
+        private LeaderFailedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+// Route filter "ResponseCache": keeps 200 GET responses, keyed by route, path and query, within a memory
+// budget for a TTL, and answers If-None-Match with 304 from the stored ETag.
+// Only requests that carry no identity at all (no token, no X-User-* headers) fill the cache, so a stored
+// entry is a public response and can be served to any caller of that URL. Writes on the route are never cached and, once they succeed, invalidate
+// the route's entries.
+//
+//   filters:
+//     - ResponseCache=30s   # optional TTL, gateway.response-cache.ttl by default
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+    public static final String CACHE_NAME = "gateway-responses";
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final Cache<String, Entry> cache;
+    private final Duration defaultTtl;
+    private final long maxBodyBytes;
+
+    public ResponseCacheGatewayFilterFactory(MeterRegistry meterRegistry,
+            @Value("${gateway.response-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${gateway.response-cache.ttl:30s}") Duration defaultTtl,
+            @Value("${gateway.response-capture.max-body-size:1MB}") DataSize maxBodySize) {
+        super(Config.class);
+        this.defaultTtl = defaultTtl;
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> key.length() * 2 + entry.response().weight())
+                .expireAfter(new EntryExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration ttl = config.getTtl() != null ? config.getTtl() : defaultTtl;
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "unknown";
+
+            if (request.getMethod() != HttpMethod.GET) {
+                if (request.getMethod() == HttpMethod.HEAD || request.getMethod() == HttpMethod.OPTIONS) {
+                    return chain.filter(exchange);
+                }
+                // Any successful write may change what the route's reads return
+                return chain.filter(exchange).doOnSuccess(done -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        invalidateRoute(routeId);
+                    }
+                });
+            }
+
+            String key = key(routeId, request);
+            Entry cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return writeCached(exchange, cached.response());
+            }
+
+            // Only reads without any identity fill the cache: no token, no verified user and no X-User-*
+            // headers the services could build a user from. Other reads are served from it but never fill it
+            if (!JwtClaims.ANONYMOUS.equals(JwtClaims.callerKey(exchange))) {
+                return chain.filter(exchange);
+            }
+
+            ServerHttpResponse response = exchange.getResponse();
+            BodyCaptureResponseDecorator capture = new BodyCaptureResponseDecorator(response, maxBodyBytes, body -> {
+                store(key, response, body, ttl);
+                response.getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+            });
+            return chain.filter(exchange.mutate().response(capture).build());
+        };
+    }
+
+    public void invalidateRoute(String routeId) {
+        String prefix = routeId + " ";
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private void store(String key, ServerHttpResponse response, byte[] body, Duration ttl) {
+        HttpHeaders headers = response.getHeaders();
+        if (response.getStatusCode() != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || !isStorable(headers.getCacheControl())) {
+            return;
+        }
+        if (headers.getETag() == null) {
+            headers.setETag(etag(body));
+        }
+        cache.put(key, new Entry(CachedResponse.of(response.getStatusCode(), headers, body), ttl));
+    }
+
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        // The route is answered here, later filters must not forward the request again
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+
+        String etag = cached.etag();
+        if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(etag);
+            return response.setComplete();
+        }
+        return cached.writeTo(response);
+    }
+
+    private static boolean isStorable(String cacheControl) {
+        if (cacheControl == null) {
+            return true;
+        }
+        String value = cacheControl.toLowerCase();
+        return !value.contains(CacheControl.noStore().getHeaderValue()) && !value.contains("private");
+    }
+
+    private static String key(String routeId, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getURI().getRawPath();
+        return query == null ? routeId + " " + path : routeId + " " + path + "?" + query;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Entry(CachedResponse response, Duration ttl) {
+    }
+
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    public static class Config {
+        private Duration ttl;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
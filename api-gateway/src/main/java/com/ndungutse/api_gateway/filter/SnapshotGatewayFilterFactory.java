@@ -0,0 +1,63 @@
+package com.ndungutse.api_gateway.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+// Route filter "Snapshot": keeps the last 200 response of every GET in the SnapshotStore, so the route's
+// fallback can serve it while the backend is unavailable. Must come before CircuitBreaker in the route's
+// filters, it tags the request with its snapshot key before the circuit breaker may forward it.
+//
+//   filters:
+//     - Snapshot
+//     - name: CircuitBreaker
+//       args:
+//         fallbackUri: forward:/restaurant-fallback
+@Component
+public class SnapshotGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private final SnapshotStore store;
+    private final long maxBodyBytes;
+
+    public SnapshotGatewayFilterFactory(SnapshotStore store,
+            @Value("${gateway.response-capture.max-body-size:1MB}") DataSize maxBodySize) {
+        this.store = store;
+        this.maxBodyBytes = maxBodySize.toBytes();
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String key = request.getMethod() == HttpMethod.GET ? SnapshotStore.key(exchange.getAttribute(
+                    ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR), exchange) : null;
+            if (key == null) {
+                return chain.filter(exchange);
+            }
+            exchange.getAttributes().put(SnapshotStore.SNAPSHOT_KEY_ATTR, key);
+
+            ServerHttpResponse response = exchange.getResponse();
+            BodyCaptureResponseDecorator capture = new BodyCaptureResponseDecorator(response, maxBodyBytes, body -> {
+                // Fallback responses, stale or not, are never a snapshot of the backend
+                if (response.getStatusCode() == HttpStatus.OK && !SnapshotStore.isSnapshot(exchange)
+                        && isStorable(response.getHeaders().getCacheControl())) {
+                    store.put(key, CachedResponse.of(response.getStatusCode(), response.getHeaders(), body));
+                }
+            });
+            return chain.filter(exchange.mutate().response(capture).build());
+        };
+    }
+
+    private static boolean isStorable(String cacheControl) {
+        return cacheControl == null
+                || !cacheControl.toLowerCase().contains(CacheControl.noStore().getHeaderValue());
+    }
+}
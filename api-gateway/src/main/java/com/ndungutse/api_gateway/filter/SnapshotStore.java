@@ -0,0 +1,75 @@
+package com.ndungutse.api_gateway.filter;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Last good response per route, user, path and query, kept within a memory budget so that fallbacks can
+// serve stale data while a backend is down. Filled by the Snapshot route filter, read by FallBackController.
+@Component
+public class SnapshotStore {
+    public static final String CACHE_NAME = "gateway-snapshots";
+    // Key of the request, set by the Snapshot filter before the circuit breaker can forward to a fallback
+    public static final String SNAPSHOT_KEY_ATTR = SnapshotStore.class.getName() + ".key";
+    // Set once a snapshot was served, so the response is not stored again as a fresh one
+    public static final String SNAPSHOT_SERVED_ATTR = SnapshotStore.class.getName() + ".served";
+
+    private final Cache<String, CachedResponse> snapshots;
+
+    public SnapshotStore(MeterRegistry meterRegistry,
+            @Value("${gateway.snapshots.max-size:32MB}") DataSize maxSize,
+            @Value("${gateway.snapshots.max-age:24h}") Duration maxAge) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() * 2 + response.weight())
+                .expireAfterWrite(maxAge)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, CACHE_NAME);
+    }
+
+    public void put(String key, CachedResponse response) {
+        snapshots.put(key, response);
+    }
+
+    // The snapshot for the request being handled, or null when there is none
+    public CachedResponse lookup(ServerWebExchange exchange) {
+        String key = exchange.getAttribute(SNAPSHOT_KEY_ATTR);
+        CachedResponse snapshot = key != null ? snapshots.getIfPresent(key) : null;
+        if (snapshot != null) {
+            exchange.getAttributes().put(SNAPSHOT_SERVED_ATTR, Boolean.TRUE);
+        }
+        return snapshot;
+    }
+
+    // Snapshots of authenticated reads are only ever served back to the user JwtFilter verified
+    static String key(Route route, ServerWebExchange exchange) {
+        String user = JwtClaims.callerKey(exchange);
+        if (user == null) {
+            return null;
+        }
+        String routeId = route != null ? route.getId() : "unknown";
+        ServerHttpRequest request = exchange.getRequest();
+        String query = request.getURI().getRawQuery();
+        String path = request.getURI().getRawPath();
+        return routeId + " " + user + " " + (query == null ? path : path + "?" + query);
+    }
+
+    static boolean isSnapshot(ServerWebExchange exchange) {
+        return exchange.getAttribute(SNAPSHOT_SERVED_ATTR) != null
+                || exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR) != null;
+    }
+}
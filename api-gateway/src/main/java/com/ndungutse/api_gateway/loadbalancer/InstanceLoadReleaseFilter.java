@@ -0,0 +1,39 @@
+package com.ndungutse.api_gateway.loadbalancer;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+// Releases the in-flight count of the instance the load balancer picked, however the exchange ends.
+// ReactiveLoadBalancerClientFilter only reports success and error to InstanceLoadTracker; without this
+// every client disconnect or timeout that cancels the chain would leave the instance looking busier.
+@Component
+public class InstanceLoadReleaseFilter implements GlobalFilter, Ordered {
+
+    private final InstanceLoadTracker tracker;
+
+    public InstanceLoadReleaseFilter(InstanceLoadTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).doFinally(signal -> {
+            InstanceLoadTracker.Lease lease = exchange.getAttribute(InstanceLoadTracker.LEASE_ATTR);
+            if (lease != null) {
+                tracker.release(lease);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        // Right around the load balancer
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
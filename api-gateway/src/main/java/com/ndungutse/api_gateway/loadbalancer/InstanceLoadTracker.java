@@ -0,0 +1,172 @@
+package com.ndungutse.api_gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Load of every instance the gateway talks to: requests in flight and a peak EWMA of response time.
+// ReactiveLoadBalancerClientFilter calls the lifecycle hooks around each routed request, and
+// PowerOfTwoChoicesLoadBalancer reads the resulting cost when picking an instance.
+// The filter does not call onComplete for a cancelled request, so each started request also leaves a
+// Lease in the exchange attributes, and InstanceLoadReleaseFilter releases it when the exchange ends.
+@Component
+public class InstanceLoadTracker implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+    public static final String LEASE_ATTR = InstanceLoadTracker.class.getName() + ".lease";
+
+    private final Cache<String, InstanceLoad> loads;
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+
+    public InstanceLoadTracker(@Value("${gateway.loadbalancer.decay:10s}") Duration decay,
+            @Value("${gateway.loadbalancer.failure-penalty:1s}") Duration failurePenalty) {
+        this.decayNanos = decay.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        // Instances that left the registry stop being looked up and age out
+        this.loads = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        Lease lease = started(lbResponse.getServer());
+        Map<String, Object> attributes = attributes(request);
+        if (attributes != null) {
+            // The exchange attributes, ReactiveLoadBalancerClientFilter passes them through as they are
+            attributes.put(LEASE_ATTR, lease);
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context) {
+        Response<ServiceInstance> lbResponse = context.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || context.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        long rttNanos = 0;
+        if (context.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() > 0) {
+            rttNanos = System.nanoTime() - timed.getRequestStartTime();
+        }
+        ResponseData response = context.getClientResponse();
+        boolean failed = context.status() == CompletionContext.Status.FAILED
+                || response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError();
+        Map<String, Object> attributes = attributes(context.getLoadBalancerRequest());
+        if (attributes != null && attributes.get(LEASE_ATTR) instanceof Lease lease) {
+            if (release(lease)) {
+                observe(lbResponse.getServer(), rttNanos, failed);
+            }
+            return;
+        }
+        completed(lbResponse.getServer(), rttNanos, failed);
+    }
+
+    private static Map<String, Object> attributes(Request<RequestDataContext> request) {
+        if (request == null || request.getContext() == null || request.getContext().getClientRequest() == null) {
+            return null;
+        }
+        return request.getContext().getClientRequest().getAttributes();
+    }
+
+    public Lease started(ServiceInstance instance) {
+        load(instance).inFlight.incrementAndGet();
+        return new Lease(instance);
+    }
+
+    public void completed(ServiceInstance instance, long rttNanos, boolean failed) {
+        finished(instance);
+        observe(instance, rttNanos, failed);
+    }
+
+    // Ends the lease's request if nothing did yet; false when it was already released
+    public boolean release(Lease lease) {
+        if (!lease.released.compareAndSet(false, true)) {
+            return false;
+        }
+        finished(lease.instance);
+        return true;
+    }
+
+    private void finished(ServiceInstance instance) {
+        load(instance).inFlight.updateAndGet(current -> Math.max(0, current - 1));
+    }
+
+    private void observe(ServiceInstance instance, long rttNanos, boolean failed) {
+        // A failing instance often answers fast, it must not look like the best one
+        load(instance).observe(failed ? Math.max(rttNanos, failurePenaltyNanos) : rttNanos, decayNanos);
+    }
+
+    // Expected cost of sending one more request: latency estimate times queue depth
+    public double cost(ServiceInstance instance) {
+        InstanceLoad load = load(instance);
+        return (load.latencyNanos(System.nanoTime(), decayNanos) + 1) * (load.inFlight.get() + 1);
+    }
+
+    public int inFlight(ServiceInstance instance) {
+        return load(instance).inFlight.get();
+    }
+
+    private InstanceLoad load(ServiceInstance instance) {
+        return loads.get(instance.getServiceId() + " " + instance.getHost() + ":" + instance.getPort(),
+                key -> new InstanceLoad());
+    }
+
+    // One request counted as in flight on an instance, released exactly once
+    public static final class Lease {
+        private final ServiceInstance instance;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(ServiceInstance instance) {
+            this.instance = instance;
+        }
+    }
+
+    private static final class InstanceLoad {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos;
+        private long updatedAt = System.nanoTime();
+
+        // Peak EWMA: a slower response is taken at once, faster ones pull the estimate down over the decay time
+        synchronized void observe(long rttNanos, double decayNanos) {
+            long now = System.nanoTime();
+            if (rttNanos > ewmaNanos) {
+                ewmaNanos = rttNanos;
+            } else {
+                double weight = Math.exp(-(now - updatedAt) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+            }
+            updatedAt = now;
+        }
+
+        // The estimate also decays while the instance gets no traffic, so a penalized instance is probed again
+        synchronized double latencyNanos(long now, double decayNanos) {
+            return ewmaNanos * Math.exp(-(now - updatedAt) / decayNanos);
+        }
+    }
+}
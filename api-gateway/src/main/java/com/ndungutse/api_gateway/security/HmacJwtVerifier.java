@@ -0,0 +1,491 @@
+package com.ndungutse.api_gateway.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+// Verifier for the compact HS256/384/512 tokens issued by auth-service's JwtUtils.
+// The key is decoded once, every thread reuses its own Mac, and the payload is read in a
+// single pass straight into JwtClaims instead of going through jjwt's generic parser chain.
+// Failures are reported with the same jjwt exception types the rest of the code already handles.
+// Several keys can be registered by kid, so keys can be rotated without invalidating issued tokens.
+// auth-service and the gateway are built separately, so each carries this file: keep both copies identical
+// apart from the package, and put what differs between them in JwtClaims.of.
+public final class HmacJwtVerifier {
+    private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+
+    private static final byte[] ALG = ascii("alg");
+    private static final byte[] KID = ascii("kid");
+    private static final byte[] SUB = ascii("sub");
+    private static final byte[] USER_ID = ascii("userId");
+    private static final byte[] ROLE = ascii("role");
+    private static final byte[] EMAIL = ascii("email");
+    private static final byte[] FULL_NAME = ascii("fullName");
+    private static final byte[] EXP = ascii("exp");
+    private static final byte[] NBF = ascii("nbf");
+
+    private final Map<String, VerificationKey> keysById;
+    private final VerificationKey keyWithoutId;
+
+    public HmacJwtVerifier(SecretKey key) {
+        this(Map.of(), key);
+    }
+
+    // Tokens with a kid header are verified with that key, tokens without one with keyWithoutId.
+    // keyWithoutId may be null, in which case tokens must carry a known kid
+    public HmacJwtVerifier(Map<String, SecretKey> keysById, SecretKey keyWithoutId) {
+        Map<String, VerificationKey> keys = new HashMap<>();
+        keysById.forEach((kid, key) -> keys.put(kid, new VerificationKey(key)));
+        this.keysById = Map.copyOf(keys);
+        this.keyWithoutId = keyWithoutId != null ? new VerificationKey(keyWithoutId) : null;
+    }
+
+    public static HmacJwtVerifier fromBase64Secret(String secret) {
+        return new HmacJwtVerifier(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)));
+    }
+
+    public JwtClaims verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new MalformedJwtException("JWT string cannot be empty");
+        }
+
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new MalformedJwtException("JWT must consist of exactly 3 parts");
+        }
+
+        byte[] compact = token.getBytes(StandardCharsets.US_ASCII);
+        VerificationKey verificationKey = checkHeader(decode(compact, 0, firstDot));
+
+        // Signature first: nothing in the payload is trusted before the HMAC matches
+        ByteBuffer signature = decode(compact, secondDot + 1, compact.length);
+        Mac mac = verificationKey.macs.get();
+        mac.update(compact, 0, secondDot);
+        byte[] expected = mac.doFinal();
+        if (!MessageDigest.isEqual(expected, toArray(signature))) {
+            throw new SignatureException("JWT signature does not match locally computed signature");
+        }
+
+        return readClaims(decode(compact, firstDot + 1, secondDot));
+    }
+
+    // Read alg and kid from the header and pick the key the token claims to be signed with
+    private VerificationKey checkHeader(ByteBuffer header) {
+        JsonReader reader = new JsonReader(header);
+        String alg = null;
+        String kid = null;
+        if (reader.beginObject()) {
+            do {
+                if (reader.nextKeyIs(ALG)) {
+                    alg = reader.readString();
+                } else if (reader.keyIs(KID)) {
+                    kid = reader.readString();
+                } else {
+                    reader.skipValue();
+                }
+            } while (reader.hasNextMember());
+        }
+        reader.endDocument();
+
+        VerificationKey verificationKey = kid != null ? keysById.get(kid) : keyWithoutId;
+        if (verificationKey == null) {
+            throw new UnsupportedJwtException(kid != null ? "Unknown JWT key id: " + kid : "JWT has no key id");
+        }
+        if (!verificationKey.jwsAlgorithm.equals(alg)) {
+            throw new UnsupportedJwtException("Unsupported JWT algorithm: " + alg);
+        }
+        return verificationKey;
+    }
+
+    private static JwtClaims readClaims(ByteBuffer payload) {
+        JsonReader reader = new JsonReader(payload);
+        String subject = null;
+        Long userId = null;
+        String role = null;
+        String email = null;
+        String fullName = null;
+        long exp = -1;
+        long nbf = -1;
+
+        if (reader.beginObject()) {
+            do {
+                if (reader.nextKeyIs(SUB)) {
+                    subject = reader.readString();
+                } else if (reader.keyIs(USER_ID)) {
+                    userId = reader.readNullableLong();
+                } else if (reader.keyIs(ROLE)) {
+                    role = reader.readString();
+                } else if (reader.keyIs(EMAIL)) {
+                    email = reader.readString();
+                } else if (reader.keyIs(FULL_NAME)) {
+                    fullName = reader.readString();
+                } else if (reader.keyIs(EXP)) {
+                    exp = reader.readLong();
+                } else if (reader.keyIs(NBF)) {
+                    nbf = reader.readLong();
+                } else {
+                    reader.skipValue();
+                }
+            } while (reader.hasNextMember());
+        }
+        reader.endDocument();
+
+        long now = System.currentTimeMillis();
+        long expiresAtMillis = exp >= 0 ? toMillis(exp) : 0L;
+        if (exp >= 0 && now >= expiresAtMillis) {
+            throw new ExpiredJwtException(null, null, "JWT expired at " + expiresAtMillis);
+        }
+        if (nbf >= 0 && now < toMillis(nbf)) {
+            throw new PrematureJwtException(null, null, "JWT must not be accepted before " + toMillis(nbf));
+        }
+
+        return JwtClaims.of(subject, userId, role, email, fullName, expiresAtMillis);
+    }
+
+    private static long toMillis(long epochSeconds) {
+        try {
+            return Math.multiplyExact(epochSeconds, 1000);
+        } catch (ArithmeticException e) {
+            throw new MalformedJwtException("JWT date out of range: " + epochSeconds, e);
+        }
+    }
+
+    private static ByteBuffer decode(byte[] compact, int from, int to) {
+        try {
+            return BASE64_URL.decode(ByteBuffer.wrap(compact, from, to - from));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid Base64url encoding in JWT", e);
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] array = buffer.array();
+        if (buffer.arrayOffset() == 0 && buffer.remaining() == array.length) {
+            return array;
+        }
+        byte[] copy = new byte[buffer.remaining()];
+        System.arraycopy(array, buffer.arrayOffset() + buffer.position(), copy, 0, copy.length);
+        return copy;
+    }
+
+    // Same mapping jjwt uses when it picks the algorithm from the key in signWith(key)
+    private static String jwsAlgorithm(SecretKey key) {
+        return switch (key.getAlgorithm()) {
+            case "HmacSHA256" -> "HS256";
+            case "HmacSHA384" -> "HS384";
+            case "HmacSHA512" -> "HS512";
+            default -> throw new IllegalArgumentException("Unsupported HMAC key algorithm: " + key.getAlgorithm());
+        };
+    }
+
+    private static Mac newMac(SecretKey key) {
+        try {
+            Mac mac = Mac.getInstance(key.getAlgorithm());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + key.getAlgorithm(), e);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // A key with its JWS algorithm and per-thread Mac, built once at startup
+    private static final class VerificationKey {
+        private final String jwsAlgorithm;
+        private final ThreadLocal<Mac> macs;
+
+        private VerificationKey(SecretKey key) {
+            this.jwsAlgorithm = jwsAlgorithm(key);
+            this.macs = ThreadLocal.withInitial(() -> newMac(key));
+            // Fail fast on a key the JCA provider cannot use
+            newMac(key);
+        }
+    }
+
+    // Minimal single-pass reader for the flat JSON objects found in JWT headers and claim sets.
+    // Keys are compared as raw bytes, so only the values we keep are turned into Strings.
+    static final class JsonReader {
+        private final byte[] buf;
+        private final int end;
+        private int pos;
+        private int keyStart;
+        private int keyEnd;
+
+        JsonReader(ByteBuffer json) {
+            this.buf = json.array();
+            this.pos = json.arrayOffset() + json.position();
+            this.end = json.arrayOffset() + json.limit();
+        }
+
+        // Consume '{' and report whether the object has any member
+        boolean beginObject() {
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return false;
+            }
+            return true;
+        }
+
+        // Consume ',' (more members follow) or '}' (object finished)
+        boolean hasNextMember() {
+            skipWhitespace();
+            byte c = next();
+            if (c == ',') {
+                return true;
+            }
+            if (c == '}') {
+                return false;
+            }
+            throw malformed();
+        }
+
+        void endDocument() {
+            skipWhitespace();
+            if (pos != end) {
+                throw malformed();
+            }
+        }
+
+        // Read the next member name and the ':' after it, then compare it with the expected name
+        boolean nextKeyIs(byte[] name) {
+            skipWhitespace();
+            expect('"');
+            keyStart = pos;
+            while (pos < end && buf[pos] != '"') {
+                // Escaped names never match our plain ASCII names, just step over them
+                pos += buf[pos] == '\\' ? 2 : 1;
+            }
+            keyEnd = pos;
+            expect('"');
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            return keyIs(name);
+        }
+
+        // Compare the member name read by the last nextKeyIs call
+        boolean keyIs(byte[] name) {
+            int length = keyEnd - keyStart;
+            if (length != name.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buf[keyStart + i] != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String readString() {
+            if (peek() == 'n') {
+                expectLiteral("null");
+                return null;
+            }
+            expect('"');
+            int start = pos;
+            while (pos < end && buf[pos] != '"' && buf[pos] != '\\') {
+                pos++;
+            }
+            if (pos < end && buf[pos] == '"') {
+                return new String(buf, start, pos++ - start, StandardCharsets.UTF_8);
+            }
+            return readEscapedString(start);
+        }
+
+        private String readEscapedString(int start) {
+            StringBuilder value = new StringBuilder(pos - start + 16);
+            value.append(new String(buf, start, pos - start, StandardCharsets.UTF_8));
+            while (true) {
+                byte c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    int runStart = pos - 1;
+                    while (pos < end && buf[pos] != '"' && buf[pos] != '\\') {
+                        pos++;
+                    }
+                    value.append(new String(buf, runStart, pos - runStart, StandardCharsets.UTF_8));
+                    continue;
+                }
+                byte escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append((char) escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> value.append((char) readHex4());
+                    default -> throw malformed();
+                }
+            }
+        }
+
+        private int readHex4() {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(next(), 16);
+                if (digit < 0) {
+                    throw malformed();
+                }
+                value = (value << 4) | digit;
+            }
+            return value;
+        }
+
+        Long readNullableLong() {
+            if (peek() == 'n') {
+                expectLiteral("null");
+                return null;
+            }
+            return readLong();
+        }
+
+        long readLong() {
+            int start = pos;
+            boolean negative = peek() == '-';
+            if (negative) {
+                pos++;
+            }
+            long value = 0;
+            int digits = 0;
+            try {
+                while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+                    value = Math.addExact(Math.multiplyExact(value, 10), buf[pos++] - '0');
+                    digits++;
+                }
+            } catch (ArithmeticException e) {
+                throw new MalformedJwtException("JWT number out of range", e);
+            }
+            if (pos < end && (buf[pos] == '.' || buf[pos] == 'e' || buf[pos] == 'E')) {
+                // Not produced by our issuer, but still valid JSON: fall back to the slow path
+                while (pos < end && isNumberChar(buf[pos])) {
+                    pos++;
+                }
+                try {
+                    return (long) Double.parseDouble(new String(buf, start, pos - start, StandardCharsets.US_ASCII));
+                } catch (NumberFormatException e) {
+                    throw new MalformedJwtException("Malformed JWT JSON", e);
+                }
+            }
+            if (digits == 0) {
+                throw malformed();
+            }
+            return negative ? -value : value;
+        }
+
+        void skipValue() {
+            byte c = peek();
+            switch (c) {
+                case '"' -> skipString();
+                case '{', '[' -> skipContainer();
+                case 't' -> expectLiteral("true");
+                case 'f' -> expectLiteral("false");
+                case 'n' -> expectLiteral("null");
+                default -> {
+                    int start = pos;
+                    while (pos < end && isNumberChar(buf[pos])) {
+                        pos++;
+                    }
+                    if (pos == start) {
+                        throw malformed();
+                    }
+                }
+            }
+        }
+
+        private void skipString() {
+            expect('"');
+            while (true) {
+                byte c = next();
+                if (c == '"') {
+                    return;
+                }
+                if (c == '\\') {
+                    next();
+                }
+            }
+        }
+
+        private void skipContainer() {
+            int depth = 0;
+            do {
+                byte c = peek();
+                if (c == '"') {
+                    skipString();
+                    continue;
+                }
+                pos++;
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        }
+
+        private void expectLiteral(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                expect(literal.charAt(i));
+            }
+        }
+
+        private static boolean isNumberChar(byte c) {
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && (buf[pos] == ' ' || buf[pos] == '\t' || buf[pos] == '\n' || buf[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw malformed();
+            }
+        }
+
+        private byte peek() {
+            if (pos >= end) {
+                throw malformed();
+            }
+            return buf[pos];
+        }
+
+        private byte next() {
+            if (pos >= end) {
+                throw malformed();
+            }
+            return buf[pos++];
+        }
+
+        private static MalformedJwtException malformed() {
+            return new MalformedJwtException("Malformed JWT JSON");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ndungutse.api_gateway.security;
+
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.jsonwebtoken.MalformedJwtException;
+
+// Verified claims the gateway forwards to the downstream services as X-User-* headers
+public record JwtClaims(Integer userId, String role, String email, String fullName, long expiresAtMillis) {
+    // Exchange attribute JwtFilter stores the verified claims under
+    public static final String EXCHANGE_ATTR = JwtClaims.class.getName();
+    // Caller key of requests without any identity
+    public static final String ANONYMOUS = "anonymous";
+
+    private static final List<String> HEADERS = List.of("X-User-Id", "X-User-Role", "X-User-Email",
+            "X-User-FullName");
+
+    // The headers the services' HeaderAuthenticationFilter builds the caller's identity from
+    public void writeTo(HttpHeaders headers) {
+        headers.set("X-User-Id", String.valueOf(userId));
+        headers.set("X-User-Role", role);
+        headers.set("X-User-Email", email);
+        headers.set("X-User-FullName", fullName);
+    }
+
+    // Built by HmacJwtVerifier from a verified claim set. The subject is not forwarded, and user ids are ints
+    // in the services, so a larger one is rejected like any other malformed token
+    static JwtClaims of(String subject, Long userId, String role, String email, String fullName,
+            long expiresAtMillis) {
+        if (userId != null && (userId < Integer.MIN_VALUE || userId > Integer.MAX_VALUE)) {
+            throw new MalformedJwtException("JWT userId out of range: " + userId);
+        }
+        return new JwtClaims(userId != null ? userId.intValue() : null, role, email, fullName, expiresAtMillis);
+    }
+
+    public static void removeFrom(HttpHeaders headers) {
+        HEADERS.forEach(headers::remove);
+    }
+
+    // The claims JwtFilter verified for this request, or null
+    public static JwtClaims from(ServerWebExchange exchange) {
+        return exchange.getAttribute(EXCHANGE_ATTR);
+    }
+
+    // Key of the caller for state shared between requests: the verified user id, "anonymous" when the
+    // request carries no identity at all, or null when it carries a token or X-User-* headers that were
+    // not verified, and must then not share anything
+    public static String callerKey(ServerWebExchange exchange) {
+        JwtClaims claims = from(exchange);
+        if (claims != null) {
+            return String.valueOf(claims.userId());
+        }
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (headers.containsKey(HttpHeaders.AUTHORIZATION) || HEADERS.stream().anyMatch(headers::containsKey)) {
+            return null;
+        }
+        return ANONYMOUS;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ndungutse.api_gateway.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Resolves the caller's claims from the bearer token, for JwtFilter on routed requests and for
+// endpoints the gateway answers itself
+@Component
+public class JwtClaimsResolver {
+
+    private final VerifiedTokenCache tokenCache;
+    private final HmacJwtVerifier verifier;
+    private final Timer cacheHitTimer;
+    private final Timer cacheMissTimer;
+
+    public JwtClaimsResolver(VerifiedTokenCache tokenCache, JwtKeyRing keyRing, MeterRegistry meterRegistry) {
+        this.tokenCache = tokenCache;
+        // Keys are decoded once by the key ring, not on every request
+        this.verifier = keyRing.verifier();
+        this.cacheHitTimer = jwtTimer(meterRegistry, "hit");
+        this.cacheMissTimer = jwtTimer(meterRegistry, "miss");
+    }
+
+    private static Timer jwtTimer(MeterRegistry meterRegistry, String cacheResult) {
+        return Timer.builder("gateway.jwt.verification")
+                .description("Time to resolve the caller's claims from the JWT")
+                .tag("cache", cacheResult)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+    // The verified claims, or null when there is no bearer token or it is not valid
+    public JwtClaims resolve(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        String jwt = authHeader.substring(7);
+        try {
+            // Warm tokens are served from the cache without parsing or HMAC verification. One lookup,
+            // so the token is digested once; the loader only runs on a miss and flags it for the timer
+            long start = System.nanoTime();
+            boolean[] verified = new boolean[1];
+            try {
+                return tokenCache.get(jwt, () -> {
+                    verified[0] = true;
+                    return verifier.verify(jwt);
+                });
+            } finally {
+                (verified[0] ? cacheMissTimer : cacheHitTimer).record(System.nanoTime() - start,
+                        TimeUnit.NANOSECONDS);
+            }
+        } catch (JwtException ex) {
+            return null;
+        }
+    }
+}
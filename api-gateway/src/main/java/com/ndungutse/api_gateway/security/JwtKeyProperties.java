@@ -0,0 +1,32 @@
+package com.ndungutse.api_gateway.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// spring.security.jwt.* as shared with auth-service:
+// keys are Base64 HMAC secrets by kid, secret is the legacy key used for tokens without a kid
+@Component
+@ConfigurationProperties(prefix = "spring.security.jwt")
+public class JwtKeyProperties {
+    private String secret;
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public Map<String, String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, String> keys) {
+        this.keys = keys;
+    }
+}
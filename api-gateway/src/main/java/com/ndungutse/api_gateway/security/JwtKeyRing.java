@@ -0,0 +1,39 @@
+package com.ndungutse.api_gateway.security;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+// Every configured key is decoded once at startup; a token's kid header selects its key with a map lookup.
+// Keeping the retired key under its kid (or as the legacy secret) lets tokens signed with it verify
+// until they expire, so keys rotate without logging anyone out.
+@Component
+public class JwtKeyRing {
+    private final HmacJwtVerifier verifier;
+
+    public JwtKeyRing(JwtKeyProperties properties) {
+        Map<String, SecretKey> keys = new HashMap<>();
+        properties.getKeys().forEach((kid, secret) -> keys.put(kid, decode(secret)));
+        SecretKey legacyKey = StringUtils.hasText(properties.getSecret()) ? decode(properties.getSecret()) : null;
+
+        if (keys.isEmpty() && legacyKey == null) {
+            throw new IllegalStateException("Configure spring.security.jwt.keys or spring.security.jwt.secret");
+        }
+        this.verifier = new HmacJwtVerifier(keys, legacyKey);
+    }
+
+    public HmacJwtVerifier verifier() {
+        return verifier;
+    }
+
+    private static SecretKey decode(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+}
@@ -0,0 +1,89 @@
+package com.ndungutse.api_gateway.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Bounded cache of already verified JWT claims, keyed by the SHA-256 digest of the raw token.
+// An entry never outlives the token's own exp, so a warm request skips parsing and
+// signature verification without ever accepting an expired token.
+@Component
+public class VerifiedTokenCache {
+    public static final String CACHE_NAME = "jwt-claims";
+
+    private final Cache<String, JwtClaims> cache;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+            @Value("${gateway.jwt.cache.max-size:10000}") long maxSize,
+            @Value("${gateway.jwt.cache.max-ttl:15m}") Duration maxTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl.toNanos()))
+                .recordStats()
+                .build();
+
+        // Exposes cache.gets{result=hit|miss}, cache.evictions, cache.size... on actuator
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // Return the cached claims for the token, or verify it and cache the result.
+    // A failing verifier propagates its exception and nothing is cached.
+    public JwtClaims get(String token, Supplier<JwtClaims> verifier) {
+        return cache.get(digest(token), key -> verifier.get());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Keeps an entry until the token expires, capped by the configured max TTL
+    private static final class TokenExpiry implements Expiry<String, JwtClaims> {
+        private final long maxTtlNanos;
+
+        private TokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+            long remainingMillis = claims.expiresAtMillis() - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                return 0;
+            }
+            return Math.min(Duration.ofMillis(remainingMillis).toNanos(), maxTtlNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ndungutse.api_gateway.aggregation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class HomeAggregatorTest {
+
+    private final JwtClaims claims = new JwtClaims(42, "ROLE_CUSTOMER", "customer@example.com", "Customer", 0);
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+    private WebClient client(ExchangeFunction backend) {
+        return WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            return backend.exchange(request);
+        }).build();
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    private HomeAggregator aggregator(ExchangeFunction loadBalanced, ExchangeFunction direct) {
+        return new HomeAggregator(client(loadBalanced), client(direct), "lb://restaurant-service",
+                "lb://order-service", "http://localhost:8082", Duration.ofSeconds(1), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void aggregate_CombinesAllLegsForTheCaller() {
+        // Arrange
+        HomeAggregator aggregator = aggregator(
+                request -> json(request.url().getHost().equals("restaurant-service") ? "[{\"id\":1}]" : "[{\"id\":7}]"),
+                request -> json("[{\"id\":9}]"));
+
+        // Act
+        HomeResponse home = aggregator.aggregate(claims, null).block();
+
+        // Assert
+        assertFalse(home.isPartial());
+        assertEquals(1, home.restaurants().get(0).get("id").asInt());
+        assertEquals(7, home.orders().get(0).get("id").asInt());
+        assertEquals(9, home.notifications().get(0).get("id").asInt());
+        assertTrue(requests.stream().anyMatch(r -> r.url().toString()
+                .equals("http://order-service/api/v1/orders/customer/42")));
+        assertTrue(requests.stream().anyMatch(r -> r.url().toString()
+                .equals("http://localhost:8082/api/v1/notifications/recipient/42")));
+        assertTrue(requests.stream().allMatch(r -> "42".equals(r.headers().getFirst("X-User-Id"))));
+    }
+
+    @Test
+    void aggregate_SlowLeg_ReturnsPartialResult() {
+        // Arrange
+        HomeAggregator aggregator = aggregator(
+                request -> json("[]"),
+                request -> json("[]").delayElement(Duration.ofSeconds(30)));
+
+        // Act
+        long start = System.nanoTime();
+        HomeResponse home = aggregator.aggregate(claims, null).block();
+
+        // Assert
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(10)) < 0);
+        assertTrue(home.isPartial());
+        assertNull(home.notifications());
+        assertEquals("timeout", home.errors().get("notifications"));
+        assertNotNull(home.orders());
+    }
+
+    @Test
+    void aggregate_FailingLeg_ReportsItsStatus() {
+        // Arrange
+        HomeAggregator aggregator = aggregator(
+                request -> request.url().getHost().equals("order-service")
+                        ? Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                        : json("[]"),
+                request -> json("[]"));
+
+        // Act
+        HomeResponse home = aggregator.aggregate(claims, null).block();
+
+        // Assert
+        assertEquals("status 500", home.errors().get("orders"));
+        assertNotNull(home.restaurants());
+        assertNotNull(home.notifications());
+    }
+
+    @Test
+    void aggregate_ClientBudget_ShortensLegsAndIsForwarded() {
+        // Arrange
+        HomeAggregator aggregator = aggregator(
+                request -> json("[]"),
+                request -> json("[]").delayElement(Duration.ofSeconds(30)));
+
+        // Act
+        HomeResponse home = aggregator.aggregate(claims, Duration.ofMillis(300)).block();
+
+        // Assert
+        assertEquals("timeout", home.errors().get("notifications"));
+        assertTrue(requests.stream().allMatch(r -> "300".equals(r.headers().getFirst("X-Request-Timeout"))));
+    }
+}
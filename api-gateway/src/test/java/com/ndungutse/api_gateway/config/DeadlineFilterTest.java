@@ -0,0 +1,136 @@
+package com.ndungutse.api_gateway.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Mono;
+
+public class DeadlineFilterTest {
+
+    private final DeadlineFilter filter = new DeadlineFilter(List.of("/api/v1/orders/restaurant/*/export"));
+    private final AtomicReference<String> forwarded = new AtomicReference<>();
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, Route route) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        if (route != null) {
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        }
+        return exchange;
+    }
+
+    @Test
+    void filter_ForwardsRouteTimeoutAsBudget() {
+        // Arrange
+        Route route = Route.async().id("order-service").uri("lb://order-service").predicate(exchange -> true)
+                .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, 3000).build();
+
+        // Act
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/orders"), route), exchange -> {
+            forwarded.set(exchange.getRequest().getHeaders().getFirst(DeadlineFilter.TIMEOUT_HEADER));
+            return Mono.empty();
+        }).block();
+
+        // Assert
+        assertEquals("3000", forwarded.get());
+    }
+
+    @Test
+    void filter_ClientBudget_ShortensDeadline() {
+        // Act
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/orders").header("X-Request-Timeout", "250"), null),
+                exchange -> {
+                    forwarded.set(exchange.getRequest().getHeaders().getFirst(DeadlineFilter.TIMEOUT_HEADER));
+                    return Mono.empty();
+                }).block();
+
+        // Assert
+        assertEquals("250", forwarded.get());
+    }
+
+    @Test
+    void filter_DeadlinePasses_ReturnsGatewayTimeout() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(
+                MockServerHttpRequest.get("/api/v1/orders").header("X-Request-Timeout", "50"), null);
+
+        // Act
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> filter.filter(exchange, e -> Mono.never()).block());
+
+        // Assert
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, ex.getStatusCode());
+    }
+
+    @Test
+    void filter_NoRouteTimeoutOrClientBudget_HasNoDeadline() {
+        // Arrange
+        Route route = Route.async().id("order-service").uri("lb://order-service").predicate(exchange -> true).build();
+
+        // Act
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/orders"), route), exchange -> {
+            forwarded.set(exchange.getRequest().getHeaders().getFirst(DeadlineFilter.TIMEOUT_HEADER));
+            return Mono.delay(Duration.ofMillis(100)).then();
+        }).block();
+
+        // Assert
+        assertNull(forwarded.get());
+    }
+
+    @Test
+    void filter_ResponseStartedStreaming_IsNotCutOff() {
+        // Arrange
+        Route route = Route.async().id("order-service").uri("lb://order-service").predicate(exchange -> true)
+                .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, 50).build();
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/orders"), route);
+
+        // Act: headers go out at once, the body keeps streaming past the deadline
+        filter.filter(exchange, e -> e.getResponse().setComplete().then(Mono.delay(Duration.ofMillis(200))).then())
+                .block();
+
+        // Assert
+        assertTrue(exchange.getResponse().isCommitted());
+    }
+
+    @Test
+    void filter_ExportPath_IgnoresRouteTimeout() {
+        // Arrange
+        Route route = Route.async().id("order-service").uri("lb://order-service").predicate(exchange -> true)
+                .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, 50).build();
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/orders/restaurant/7/export"),
+                route);
+
+        // Act: the export takes longer than the route's timeout before its first byte
+        filter.filter(exchange, e -> {
+            forwarded.set(e.getRequest().getHeaders().getFirst(DeadlineFilter.TIMEOUT_HEADER));
+            return Mono.delay(Duration.ofMillis(200)).then();
+        }).block();
+
+        // Assert
+        assertNull(forwarded.get());
+    }
+
+    @Test
+    void filter_ExportPath_KeepsClientBudget() {
+        // Act
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/orders/restaurant/7/export")
+                .header("X-Request-Timeout", "60000"), null), exchange -> {
+                    forwarded.set(exchange.getRequest().getHeaders().getFirst(DeadlineFilter.TIMEOUT_HEADER));
+                    return Mono.empty();
+                }).block();
+
+        // Assert
+        assertEquals("60000", forwarded.get());
+    }
+}
@@ -0,0 +1,104 @@
+package com.ndungutse.api_gateway.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.ndungutse.api_gateway.security.JwtClaims;
+import com.ndungutse.api_gateway.security.JwtClaimsResolver;
+import com.ndungutse.api_gateway.security.JwtKeyProperties;
+import com.ndungutse.api_gateway.security.JwtKeyRing;
+import com.ndungutse.api_gateway.security.VerifiedTokenCache;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class JwtFilterTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGhhdC1pcy0zMi1ieXRlcy1sb25n";
+
+    private final JwtFilter filter;
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+
+    public JwtFilterTest() {
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setSecret(SECRET);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(meterRegistry, 100, java.time.Duration.ofMinutes(15));
+        filter = new JwtFilter(new JwtClaimsResolver(tokenCache, new JwtKeyRing(properties), meterRegistry));
+    }
+
+    private ServerWebExchange run(MockServerHttpRequest.BaseBuilder<?> request) {
+        filter.filter(MockServerWebExchange.from(request), exchange -> {
+            forwarded.set(exchange);
+            return Mono.empty();
+        }).block();
+        return forwarded.get();
+    }
+
+    private static String token(int userId) {
+        SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET));
+        return Jwts.builder()
+                .subject(String.valueOf(userId))
+                .claim("email", "customer@example.com")
+                .claim("fullName", "Customer")
+                .claim("role", "ROLE_CUSTOMER")
+                .claim("userId", userId)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(key)
+                .compact();
+    }
+
+    @Test
+    void filter_NoToken_RemovesClientSentIdentityHeaders() {
+        // Act
+        ServerWebExchange exchange = run(MockServerHttpRequest.get("/api/v1/orders")
+                .header("X-User-Id", "42").header("X-User-Role", "ROLE_ADMIN"));
+
+        // Assert
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        assertFalse(headers.containsKey("X-User-Id"));
+        assertFalse(headers.containsKey("X-User-Role"));
+        assertNull(JwtClaims.from(exchange));
+        assertEquals("anonymous", JwtClaims.callerKey(exchange));
+    }
+
+    @Test
+    void filter_ValidToken_ReplacesClientSentHeadersWithVerifiedClaims() {
+        // Act
+        ServerWebExchange exchange = run(MockServerHttpRequest.get("/api/v1/orders")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(7))
+                .header("X-User-Id", "42").header("X-User-Role", "ROLE_ADMIN"));
+
+        // Assert
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        assertEquals("7", headers.getFirst("X-User-Id"));
+        assertEquals("ROLE_CUSTOMER", headers.getFirst("X-User-Role"));
+        assertEquals(7, JwtClaims.from(exchange).userId());
+        assertEquals("7", JwtClaims.callerKey(exchange));
+    }
+
+    @Test
+    void filter_InvalidToken_NoIdentityAndNotShareable() {
+        // Act
+        ServerWebExchange exchange = run(MockServerHttpRequest.get("/api/v1/orders")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt").header("X-User-Id", "42"));
+
+        // Assert
+        assertFalse(exchange.getRequest().getHeaders().containsKey("X-User-Id"));
+        assertNull(JwtClaims.from(exchange));
+        assertNull(JwtClaims.callerKey(exchange));
+    }
+}
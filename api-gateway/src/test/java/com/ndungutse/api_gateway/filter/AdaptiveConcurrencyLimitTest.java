@@ -0,0 +1,86 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void tryAcquire_RejectsAboveLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 0.9);
+
+        // Act & Assert
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(-1, limit.tryAcquire());
+        limit.release();
+        assertEquals(2, limit.tryAcquire());
+    }
+
+    @Test
+    void onSuccess_SteadyLatencyAtSaturation_GrowsLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100, 0.9);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limit.onSuccess(20 * MS, (int) limit.getLimit());
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() > 20, "limit: " + limit.getLimit());
+    }
+
+    @Test
+    void onSuccess_LatencyRise_ShrinksLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 5, 100, 0.9);
+        for (int i = 0; i < 20; i++) {
+            limit.onSuccess(20 * MS, 50);
+        }
+        double before = limit.getLimit();
+
+        // Act: backend now answers 5x slower
+        for (int i = 0; i < 20; i++) {
+            limit.onSuccess(100 * MS, (int) limit.getLimit());
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() < before, before + " -> " + limit.getLimit());
+    }
+
+    @Test
+    void onSuccess_UnderusedLimit_DoesNotGrow() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 5, 100, 0.9);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limit.onSuccess(20 * MS, 3);
+        }
+
+        // Assert
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    void onDropped_BacksOffDownToMinimum() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 0.5);
+
+        // Act
+        limit.onDropped();
+        double afterOne = limit.getLimit();
+        for (int i = 0; i < 10; i++) {
+            limit.onDropped();
+        }
+
+        // Assert
+        assertEquals(10, afterOne);
+        assertEquals(5, limit.getLimit());
+    }
+}
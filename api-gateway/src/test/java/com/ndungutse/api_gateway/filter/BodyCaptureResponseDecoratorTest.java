@@ -0,0 +1,59 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+
+import reactor.core.publisher.Flux;
+
+public class BodyCaptureResponseDecoratorTest {
+
+    private final MockServerHttpResponse response = new MockServerHttpResponse();
+    private final AtomicReference<byte[]> captured = new AtomicReference<>();
+    private final BodyCaptureResponseDecorator decorator = new BodyCaptureResponseDecorator(response, 10,
+            captured::set);
+
+    private static Flux<DataBuffer> chunks(String... parts) {
+        return Flux.fromArray(parts)
+                .map(part -> DefaultDataBufferFactory.sharedInstance.wrap(part.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void writeWith_BodyWithinLimit_IsCapturedAndWritten() {
+        // Act
+        decorator.writeWith(chunks("hello", "world")).block();
+
+        // Assert
+        assertEquals("helloworld", new String(captured.get(), StandardCharsets.UTF_8));
+        assertEquals("helloworld", response.getBodyAsString().block());
+    }
+
+    @Test
+    void writeWith_ChunkedBodyOverLimit_IsPassedThroughUncaptured() {
+        // Act
+        decorator.writeWith(chunks("hello", "world", "again")).block();
+
+        // Assert
+        assertNull(captured.get());
+        assertEquals("helloworldagain", response.getBodyAsString().block());
+    }
+
+    @Test
+    void writeWith_ContentLengthOverLimit_IsPassedThroughUncaptured() {
+        // Arrange
+        response.getHeaders().setContentLength(15);
+
+        // Act
+        decorator.writeWith(chunks("hello", "world", "again")).block();
+
+        // Assert
+        assertNull(captured.get());
+        assertEquals("helloworldagain", response.getBodyAsString().block());
+    }
+}
@@ -0,0 +1,90 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.ndungutse.api_gateway.filter.HedgingGatewayFilterFactory.HedgePolicy;
+
+import reactor.core.publisher.Mono;
+
+public class HedgePolicyTest {
+
+    private HedgePolicy policy(double budgetPercent) {
+        HedgingGatewayFilterFactory.Config config = new HedgingGatewayFilterFactory.Config();
+        config.setPercentile(0.9);
+        config.setBudgetPercent(budgetPercent);
+        config.setMinDelay(Duration.ofMillis(5));
+        return new HedgePolicy(config);
+    }
+
+    @Test
+    void hedgeDelay_NoSamples_DoesNotHedge() {
+        // Act & Assert
+        assertNull(policy(5).hedgeDelay());
+    }
+
+    @Test
+    void hedgeDelay_UsesConfiguredPercentile() {
+        // Arrange
+        HedgePolicy policy = policy(5);
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency(Duration.ofMillis(i).toNanos());
+        }
+
+        // Act & Assert
+        assertEquals(Duration.ofMillis(90), policy.hedgeDelay());
+    }
+
+    @Test
+    void tryHedge_CapsHedgesAtBudgetPercent() {
+        // Arrange
+        HedgePolicy policy = policy(5);
+        int hedges = 0;
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            policy.onRequest();
+            if (policy.tryHedge()) {
+                hedges++;
+            }
+        }
+
+        // Assert
+        assertEquals(50, hedges);
+    }
+
+    @Test
+    void timePrimary_CancelledSlowPrimaries_KeepDelayHigh() {
+        // Arrange
+        HedgePolicy policy = policy(5);
+
+        // Act: every primary hangs and loses the race to a hedge answering after 20ms
+        for (int i = 0; i < 25; i++) {
+            Mono.firstWithValue(policy.timePrimary(Mono.never()), Mono.delay(Duration.ofMillis(20)))
+                    .block(Duration.ofSeconds(1));
+        }
+
+        // Assert
+        Duration delay = policy.hedgeDelay();
+        assertNotNull(delay);
+        assertTrue(delay.compareTo(Duration.ofMillis(20)) >= 0, delay.toString());
+    }
+
+    @Test
+    void timePrimary_TimedOutPrimary_RecordsElapsedTime() {
+        // Arrange
+        HedgePolicy policy = policy(5);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            Mono<Object> call = policy.timePrimary(Mono.never()).timeout(Duration.ofMillis(15));
+            assertThrows(Exception.class, () -> call.block(Duration.ofSeconds(1)));
+        }
+
+        // Assert
+        assertTrue(policy.hedgeDelay().compareTo(Duration.ofMillis(15)) >= 0);
+    }
+}
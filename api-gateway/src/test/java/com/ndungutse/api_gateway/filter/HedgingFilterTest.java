@@ -0,0 +1,136 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ndungutse.api_gateway.filter.HedgingGatewayFilterFactory.HedgePolicy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class HedgingFilterTest {
+
+    private final Route route = Route.async().id("restaurant-service").uri("lb://restaurant-service")
+            .predicate(exchange -> true).build();
+    private final AtomicBoolean routedByChain = new AtomicBoolean();
+    private final GatewayFilterChain chain = exchange -> {
+        routedByChain.set(true);
+        return Mono.empty();
+    };
+
+    @SuppressWarnings("unchecked")
+    private HedgingFilter filter(Supplier<Mono<MockClientHttpResponse>> upstream) {
+        ClientHttpConnector connector = (method, uri, requestCallback) -> requestCallback
+                .apply(new MockClientHttpRequest(method, uri))
+                .then(Mono.defer(upstream));
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+        when(headersFilters.getIfAvailable(any())).thenReturn(List.of());
+        return new HedgingFilter(WebClient.builder().clientConnector(connector), mock(ReactiveDiscoveryClient.class),
+                headersFilters, new SimpleMeterRegistry(), DataSize.ofKilobytes(1));
+    }
+
+    private static Mono<MockClientHttpResponse> respond(int bodyBytes) {
+        MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+        byte[] body = "x".repeat(bodyBytes).getBytes(StandardCharsets.UTF_8);
+        // Chunked, the size is only known while reading
+        response.setBody(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+        return Mono.just(response);
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, Duration timeout) {
+        HedgingGatewayFilterFactory.Config config = new HedgingGatewayFilterFactory.Config();
+        config.setTimeout(timeout);
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(HedgingGatewayFilterFactory.HEDGE_POLICY_ATTR, new HedgePolicy(config));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("http://10.0.0.1:8080/api/v1/restaurants"));
+        return exchange;
+    }
+
+    @Test
+    void filter_SmallResponse_IsWrittenByHedgingFilter() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/restaurants"),
+                Duration.ofSeconds(5));
+
+        // Act
+        filter(() -> respond(100)).filter(exchange, chain).block();
+
+        // Assert
+        assertFalse(routedByChain.get());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(100, exchange.getResponse().getBodyAsString().block().length());
+    }
+
+    @Test
+    void filter_ResponseOverMaxBodySize_FallsBackToRoutingFilter() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/restaurants"),
+                Duration.ofSeconds(5));
+
+        // Act
+        filter(() -> respond(4096)).filter(exchange, chain).block();
+
+        // Assert
+        assertTrue(routedByChain.get());
+        assertFalse(ServerWebExchangeUtils.isAlreadyRouted(exchange));
+    }
+
+    @Test
+    void filter_UpstreamTooSlow_FailsWithGatewayTimeout() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/restaurants"),
+                Duration.ofMillis(50));
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> filter(Mono::never).filter(exchange, chain).block(Duration.ofSeconds(5)));
+
+        // Assert
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, e.getStatusCode());
+    }
+
+    @Test
+    void filter_StreamingRequest_IsNotHedged() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/orders/restaurant/1/export")
+                .accept(MediaType.APPLICATION_NDJSON), Duration.ofSeconds(5));
+
+        // Act
+        filter(() -> respond(100)).filter(exchange, chain).block();
+
+        // Assert
+        assertTrue(routedByChain.get());
+        assertFalse(HedgingFilter.isSmallRead(MockServerHttpRequest.post("/api/v1/orders").build()));
+        assertTrue(HedgingFilter.isSmallRead(MockServerHttpRequest.get("/api/v1/orders")
+                .accept(MediaType.ALL).build()));
+    }
+}
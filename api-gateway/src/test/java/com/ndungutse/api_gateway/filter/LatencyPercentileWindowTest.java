@@ -0,0 +1,34 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyPercentileWindowTest {
+
+    @Test
+    void percentileNanos_PastIntegerRangeOfSamples_KeepsWorking() {
+        // Arrange: the counter crosses Integer.MAX_VALUE while recording
+        LatencyPercentileWindow window = new LatencyPercentileWindow(64, 0.9, 0, Integer.MAX_VALUE - 10L);
+
+        // Act
+        for (int i = 1; i <= 64; i++) {
+            window.record(i);
+        }
+
+        // Assert
+        assertEquals(58, window.percentileNanos());
+    }
+
+    @Test
+    void percentileNanos_TooFewSamples_IsUnknown() {
+        // Arrange
+        LatencyPercentileWindow window = new LatencyPercentileWindow(64, 0.9, 0);
+        for (int i = 0; i < 19; i++) {
+            window.record(1_000);
+        }
+
+        // Act & Assert
+        assertEquals(-1, window.percentileNanos());
+    }
+}
@@ -0,0 +1,123 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class LocalRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final LocalRateLimiter limiter = new LocalRateLimiter(1000, Duration.ofMinutes(1), now::get);
+    private final LocalRateLimiterGatewayFilterFactory filterFactory = new LocalRateLimiterGatewayFilterFactory(
+            limiter, new SimpleMeterRegistry());
+    private final Route route = Route.async().id("order-service").uri("lb://order-service")
+            .predicate(exchange -> true).build();
+
+    @Test
+    void tryAcquire_AllowsBurstThenRate() {
+        // Act & Assert: 10 permits/s with a burst of 3
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("user:1", 10, 3));
+        }
+        long wait = limiter.tryAcquire("user:1", 10, 3);
+        assertEquals(100_000_000L, wait);
+
+        now.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("user:1", 10, 3));
+        assertTrue(limiter.tryAcquire("user:1", 10, 3) > 0);
+    }
+
+    @Test
+    void tryAcquire_RejectedAttemptsDoNotConsumePermits() {
+        // Arrange
+        limiter.tryAcquire("user:1", 1, 1);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("user:1", 1, 1);
+        }
+
+        // Act
+        now.addAndGet(1_000_000_000L);
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("user:1", 1, 1));
+    }
+
+    @Test
+    void tryAcquire_KeysAreIndependent() {
+        // Arrange
+        limiter.tryAcquire("user:1", 1, 1);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("user:1", 1, 1) > 0);
+        assertEquals(0, limiter.tryAcquire("user:2", 1, 1));
+    }
+
+    private MockServerWebExchange exchange(String address, String userHeader, Integer verifiedUser) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/v1/orders")
+                .remoteAddress(new InetSocketAddress(address, 40000));
+        if (userHeader != null) {
+            request.header("X-User-Id", userHeader);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        if (verifiedUser != null) {
+            exchange.getAttributes().put(JwtClaims.EXCHANGE_ATTR,
+                    new JwtClaims(verifiedUser, "ROLE_CUSTOMER", "user@example.com", "User", Long.MAX_VALUE));
+        }
+        return exchange;
+    }
+
+    private HttpStatusCode run(GatewayFilter filter, MockServerWebExchange exchange) {
+        filter.filter(exchange, ex -> Mono.empty()).block();
+        return exchange.getResponse().getStatusCode();
+    }
+
+    @Test
+    void filter_RotatingUserHeader_SharesClientAddressBucket() {
+        // Arrange: 1 permit/s per user, no route limit
+        GatewayFilter filter = filterFactory.apply(userConfig());
+        run(filter, exchange("10.0.0.1", "1", null));
+
+        // Act
+        HttpStatusCode rotated = run(filter, exchange("10.0.0.1", "2", null));
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rotated);
+    }
+
+    @Test
+    void filter_SpoofedVictimId_DoesNotDrainVictimsBucket() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(userConfig());
+        run(filter, exchange("10.0.0.1", "42", null));
+
+        // Act
+        HttpStatusCode victim = run(filter, exchange("10.0.0.2", null, 42));
+
+        // Assert
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, victim);
+    }
+
+    private static LocalRateLimiterGatewayFilterFactory.Config userConfig() {
+        LocalRateLimiterGatewayFilterFactory.Config config = new LocalRateLimiterGatewayFilterFactory.Config();
+        config.setUserReplenishRate(1);
+        config.setUserBurstCapacity(1);
+        return config;
+    }
+}
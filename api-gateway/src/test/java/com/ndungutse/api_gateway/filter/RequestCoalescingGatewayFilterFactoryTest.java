@@ -0,0 +1,112 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class RequestCoalescingGatewayFilterFactoryTest {
+
+    private final Route route = Route.async().id("restaurant-service").uri("lb://restaurant-service")
+            .predicate(exchange -> true).build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GatewayFilter filter = new RequestCoalescingGatewayFilterFactory(meterRegistry,
+            DataSize.ofMegabytes(1)).apply(new Object());
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    // Slow backend, so concurrent requests overlap
+    private final GatewayFilterChain backend = exchange -> Mono.delay(Duration.ofMillis(200)).then(Mono.defer(() -> {
+        backendCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        byte[] body = ("call-" + backendCalls.get()).getBytes(StandardCharsets.UTF_8);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    }));
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    @Test
+    void get_ConcurrentIdentical_SingleUpstreamCall() {
+        // Arrange
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/v1/restaurants"));
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/v1/restaurants"));
+        MockServerWebExchange third = exchange(MockServerHttpRequest.get("/api/v1/restaurants"));
+
+        // Act
+        Mono.when(filter.filter(first, backend), filter.filter(second, backend), filter.filter(third, backend))
+                .block();
+
+        // Assert
+        assertEquals(1, backendCalls.get());
+        assertEquals("call-1", second.getResponse().getBodyAsString().block());
+        assertEquals("call-1", third.getResponse().getBodyAsString().block());
+        assertEquals(2.0, meterRegistry.get("gateway.coalescing.requests").tag("role", "follower").counter().count());
+    }
+
+    // A request whose token JwtFilter verified for the given user
+    private MockServerWebExchange signedIn(MockServerHttpRequest.BaseBuilder<?> request, int userId) {
+        MockServerWebExchange exchange = exchange(request.header("Authorization", "Bearer " + userId));
+        exchange.getAttributes().put(JwtClaims.EXCHANGE_ATTR,
+                new JwtClaims(userId, "ROLE_CUSTOMER", "user@example.com", "User", Long.MAX_VALUE));
+        return exchange;
+    }
+
+    @Test
+    void get_DifferentUsers_NotCoalesced() {
+        // Arrange
+        MockServerWebExchange alice = signedIn(MockServerHttpRequest.get("/api/v1/restaurants/my-restaurants"), 1);
+        MockServerWebExchange bob = signedIn(MockServerHttpRequest.get("/api/v1/restaurants/my-restaurants"), 2);
+
+        // Act
+        Mono.when(filter.filter(alice, backend), filter.filter(bob, backend)).block();
+
+        // Assert
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void get_SpoofedUserHeaderWithoutToken_NeverSharesUsersResponse() {
+        // Arrange
+        MockServerWebExchange victim = signedIn(MockServerHttpRequest.get("/api/v1/orders/customer/42"), 42);
+        MockServerWebExchange spoofed = exchange(MockServerHttpRequest.get("/api/v1/orders/customer/42")
+                .header("X-User-Id", "42"));
+
+        // Act
+        Mono.when(filter.filter(victim, backend), filter.filter(spoofed, backend)).block();
+
+        // Assert
+        assertEquals(2, backendCalls.get());
+        assertNotEquals(victim.getResponse().getBodyAsString().block(),
+                spoofed.getResponse().getBodyAsString().block());
+        assertEquals(0.0, meterRegistry.get("gateway.coalescing.requests").tag("role", "follower").counter().count());
+    }
+
+    @Test
+    void get_Sequential_EachGoesUpstream() {
+        // Act
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/restaurants/1")), backend).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/restaurants/1")), backend).block();
+
+        // Assert
+        assertEquals(2, backendCalls.get());
+    }
+}
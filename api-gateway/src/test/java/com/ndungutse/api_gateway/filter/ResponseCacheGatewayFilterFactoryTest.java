@@ -0,0 +1,152 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class ResponseCacheGatewayFilterFactoryTest {
+
+    private final Route route = Route.async().id("restaurant-service").uri("lb://restaurant-service")
+            .predicate(exchange -> true).build();
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    private GatewayFilter filter;
+
+    // Stands in for the backend: 200 with a JSON body, or 201 for writes
+    private final GatewayFilterChain backend = exchange -> {
+        backendCalls.incrementAndGet();
+        if (exchange.getRequest().getMethod().name().equals("POST")) {
+            exchange.getResponse().setStatusCode(HttpStatus.CREATED);
+            return exchange.getResponse().setComplete();
+        }
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    };
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(new SimpleMeterRegistry(),
+                DataSize.ofMegabytes(1), Duration.ofMinutes(1), DataSize.ofMegabytes(1));
+        filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config());
+    }
+
+    private MockServerWebExchange run(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        filter.filter(exchange, backend).block();
+        return exchange;
+    }
+
+    @Test
+    void get_SecondRequest_ServedFromCache() {
+        // Act
+        MockServerWebExchange first = run(MockServerHttpRequest.get("/api/v1/restaurants?page=1"));
+        MockServerWebExchange second = run(MockServerHttpRequest.get("/api/v1/restaurants?page=1"));
+
+        // Assert
+        assertEquals(1, backendCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("[{\"id\":1}]", second.getResponse().getBodyAsString().block());
+        assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void get_DifferentQuery_IsSeparateEntry() {
+        // Act
+        run(MockServerHttpRequest.get("/api/v1/restaurants?page=1"));
+        run(MockServerHttpRequest.get("/api/v1/restaurants?page=2"));
+
+        // Assert
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void get_MatchingIfNoneMatch_Returns304() {
+        // Arrange
+        String etag = run(MockServerHttpRequest.get("/api/v1/restaurants/1")).getResponse().getHeaders().getETag();
+
+        // Act
+        MockServerWebExchange revalidation = run(MockServerHttpRequest.get("/api/v1/restaurants/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidation.getResponse().getStatusCode());
+        assertEquals(1, backendCalls.get());
+    }
+
+    @Test
+    void get_Authenticated_DoesNotFillCache() {
+        // Act
+        run(MockServerHttpRequest.get("/api/v1/restaurants/my-restaurants").header(HttpHeaders.AUTHORIZATION, "Bearer x"));
+        run(MockServerHttpRequest.get("/api/v1/restaurants/my-restaurants").header(HttpHeaders.AUTHORIZATION, "Bearer y"));
+
+        // Assert
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void get_IdentityHeadersWithoutToken_DoesNotFillCache() {
+        // Act
+        run(MockServerHttpRequest.get("/api/v1/orders/customer/42").header("X-User-Id", "42")
+                .header("X-User-Role", "ROLE_CUSTOMER"));
+        MockServerWebExchange anonymous = run(MockServerHttpRequest.get("/api/v1/orders/customer/42"));
+
+        // Assert
+        assertEquals(2, backendCalls.get());
+        assertEquals("MISS", anonymous.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void get_VerifiedUser_DoesNotFillCache() {
+        // Arrange
+        MockServerWebExchange signedIn = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/restaurants"));
+        signedIn.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        signedIn.getAttributes().put(JwtClaims.EXCHANGE_ATTR,
+                new JwtClaims(42, "ROLE_CUSTOMER", "user@example.com", "User", Long.MAX_VALUE));
+
+        // Act
+        filter.filter(signedIn, backend).block();
+        MockServerWebExchange anonymous = run(MockServerHttpRequest.get("/api/v1/restaurants"));
+
+        // Assert
+        assertEquals(2, backendCalls.get());
+        assertEquals("MISS", anonymous.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void post_Successful_InvalidatesRoute() {
+        // Arrange
+        run(MockServerHttpRequest.get("/api/v1/restaurants"));
+
+        // Act
+        run(MockServerHttpRequest.post("/api/v1/restaurants").header(HttpHeaders.AUTHORIZATION, "Bearer x"));
+        MockServerWebExchange after = run(MockServerHttpRequest.get("/api/v1/restaurants"));
+
+        // Assert
+        assertEquals(3, backendCalls.get());
+        assertEquals("MISS", after.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+}
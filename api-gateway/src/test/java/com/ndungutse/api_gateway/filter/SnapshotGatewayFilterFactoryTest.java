@@ -0,0 +1,124 @@
+package com.ndungutse.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+
+import com.ndungutse.api_gateway.FallBackController;
+import com.ndungutse.api_gateway.security.JwtClaims;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+public class SnapshotGatewayFilterFactoryTest {
+
+    private final Route route = Route.async().id("restaurant-service").uri("lb://restaurant-service")
+            .predicate(exchange -> true).build();
+    private final SnapshotStore store = new SnapshotStore(new SimpleMeterRegistry(), DataSize.ofMegabytes(1),
+            Duration.ofHours(1));
+    private final GatewayFilter filter = new SnapshotGatewayFilterFactory(store, DataSize.ofMegabytes(1))
+            .apply(new Object());
+    private final FallBackController fallBackController = new FallBackController(store, new SimpleMeterRegistry());
+
+    private final GatewayFilterChain healthyBackend = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    };
+
+    // What the CircuitBreaker filter does when the backend is down: forward to the fallback controller
+    private final GatewayFilterChain brokenBackend = exchange -> {
+        exchange.getAttributes().put(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR,
+                new IllegalStateException("connection refused"));
+        return Mono.empty();
+    };
+
+    private MockServerWebExchange run(MockServerHttpRequest.BaseBuilder<?> request, GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    @Test
+    void fallback_ServesLastGoodResponseAsStale() {
+        // Arrange
+        run(MockServerHttpRequest.get("/api/v1/restaurants?page=1"), healthyBackend);
+        MockServerWebExchange outage = run(MockServerHttpRequest.get("/api/v1/restaurants?page=1"), brokenBackend);
+
+        // Act
+        ResponseEntity<?> response = fallBackController.restaurantFallback(outage);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("[{\"id\":1}]", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.WARNING).startsWith("110"));
+        assertEquals("0", response.getHeaders().getFirst(HttpHeaders.AGE));
+    }
+
+    @Test
+    void fallback_NoSnapshot_ReturnsServiceUnavailable() {
+        // Arrange
+        run(MockServerHttpRequest.get("/api/v1/restaurants?page=1"), healthyBackend);
+        MockServerWebExchange outage = run(MockServerHttpRequest.get("/api/v1/restaurants?page=2"), brokenBackend);
+
+        // Act
+        ResponseEntity<?> response = fallBackController.restaurantFallback(outage);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.WARNING));
+    }
+
+    // A request whose token JwtFilter verified for the given user
+    private MockServerWebExchange runAs(int userId, GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/orders")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + userId));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(JwtClaims.EXCHANGE_ATTR,
+                new JwtClaims(userId, "ROLE_CUSTOMER", "user@example.com", "User", Long.MAX_VALUE));
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    @Test
+    void fallback_NeverServesAnotherUsersSnapshot() {
+        // Arrange
+        runAs(1, healthyBackend);
+        MockServerWebExchange otherUser = runAs(2, brokenBackend);
+        MockServerWebExchange sameUser = runAs(1, brokenBackend);
+
+        // Act & Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, fallBackController.orderFallback(otherUser).getStatusCode());
+        assertEquals(HttpStatus.OK, fallBackController.orderFallback(sameUser).getStatusCode());
+    }
+
+    @Test
+    void fallback_SpoofedUserHeaderWithoutToken_GetsNoUsersSnapshot() {
+        // Arrange
+        runAs(42, healthyBackend);
+        MockServerWebExchange spoofed = run(MockServerHttpRequest.get("/api/v1/orders").header("X-User-Id", "42"),
+                brokenBackend);
+        MockServerWebExchange anonymous = run(MockServerHttpRequest.get("/api/v1/orders"), brokenBackend);
+
+        // Act & Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, fallBackController.orderFallback(spoofed).getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, fallBackController.orderFallback(anonymous).getStatusCode());
+    }
+}
@@ -0,0 +1,75 @@
+package com.ndungutse.api_gateway.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+public class InstanceLoadReleaseFilterTest {
+
+    private final ServiceInstance instance = new DefaultServiceInstance("a", "order-service", "10.0.0.1", 8080,
+            false);
+    private final InstanceLoadTracker tracker = new InstanceLoadTracker(Duration.ofSeconds(10), Duration.ofSeconds(1));
+    private final InstanceLoadReleaseFilter filter = new InstanceLoadReleaseFilter(tracker);
+
+    private static DefaultRequest<RequestDataContext> lbRequest(ServerWebExchange exchange) {
+        return new DefaultRequest<>(new RequestDataContext(
+                new RequestData(exchange.getRequest(), exchange.getAttributes())));
+    }
+
+    // Picks the instance the way ReactiveLoadBalancerClientFilter does, then hands over to upstream
+    private GatewayFilterChain loadBalanced(Mono<Void> upstream) {
+        return exchange -> {
+            tracker.onStartRequest(lbRequest(exchange), new DefaultResponse(instance));
+            return upstream;
+        };
+    }
+
+    @Test
+    void filter_CancelledRequest_ReleasesInFlight() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/orders"));
+        Disposable request = filter.filter(exchange, loadBalanced(Mono.never())).subscribe();
+        assertEquals(1, tracker.inFlight(instance));
+
+        // Act: client disconnects
+        request.dispose();
+
+        // Assert
+        assertEquals(0, tracker.inFlight(instance));
+    }
+
+    @Test
+    void filter_CompletedRequest_ReleasesOnlyOnce() {
+        // Arrange: a second request to the same instance is still running
+        tracker.started(instance);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/orders"));
+        GatewayFilterChain chain = loadBalanced(Mono.defer(() -> {
+            tracker.onComplete(new CompletionContext<ResponseData, ServiceInstance, RequestDataContext>(
+                    CompletionContext.Status.SUCCESS, lbRequest(exchange), new DefaultResponse(instance)));
+            return Mono.empty();
+        }));
+
+        // Act
+        filter.filter(exchange, chain).block();
+
+        // Assert
+        assertEquals(1, tracker.inFlight(instance));
+    }
+}
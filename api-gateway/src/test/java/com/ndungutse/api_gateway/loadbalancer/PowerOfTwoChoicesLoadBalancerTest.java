@@ -0,0 +1,60 @@
+package com.ndungutse.api_gateway.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+public class PowerOfTwoChoicesLoadBalancerTest {
+
+    private final ServiceInstance fast = new DefaultServiceInstance("fast", "order-service", "10.0.0.1", 8080, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("slow", "order-service", "10.0.0.2", 8080, false);
+    private final InstanceLoadTracker tracker = new InstanceLoadTracker(Duration.ofSeconds(10), Duration.ofSeconds(1));
+    private final PowerOfTwoChoicesLoadBalancer loadBalancer = new PowerOfTwoChoicesLoadBalancer(
+            ServiceInstanceListSuppliers.toProvider("order-service", fast, slow), "order-service", tracker);
+
+    @Test
+    void choose_PrefersInstanceWithLowerLatency() {
+        // Arrange
+        tracker.started(fast);
+        tracker.completed(fast, Duration.ofMillis(5).toNanos(), false);
+        tracker.started(slow);
+        tracker.completed(slow, Duration.ofMillis(200).toNanos(), false);
+
+        // Act & Assert
+        for (int i = 0; i < 20; i++) {
+            assertSame(fast, loadBalancer.choose().block().getServer());
+        }
+    }
+
+    @Test
+    void choose_StepsAwayFromInstanceWithRequestsInFlight() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            tracker.started(fast);
+        }
+
+        // Act & Assert
+        assertSame(slow, loadBalancer.select(List.of(fast, slow)).getServer());
+        assertEquals(3, tracker.inFlight(fast));
+    }
+
+    @Test
+    void completed_FailureCostsAtLeastThePenalty() {
+        // Arrange
+        tracker.started(fast);
+        tracker.completed(fast, Duration.ofMillis(1).toNanos(), true);
+        tracker.started(slow);
+        tracker.completed(slow, Duration.ofMillis(200).toNanos(), false);
+
+        // Act & Assert
+        assertTrue(tracker.cost(fast) > tracker.cost(slow));
+        assertSame(slow, loadBalancer.select(List.of(fast, slow)).getServer());
+        assertEquals(0, tracker.inFlight(fast));
+    }
+}
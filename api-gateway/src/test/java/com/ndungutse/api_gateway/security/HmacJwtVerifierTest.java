@@ -0,0 +1,155 @@
+package com.ndungutse.api_gateway.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+public class HmacJwtVerifierTest {
+
+    // Secret shorter than 384 bits, so tokens are signed with HS256 like in production
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGhhdC1pcy0zMi1ieXRlcy1sb25n";
+
+    private final SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET));
+    private final HmacJwtVerifier verifier = new HmacJwtVerifier(key);
+
+    // Same claim layout as JwtUtils.generateJwtTokenFromUsername in auth-service
+    private JwtBuilder token(long expiresInMs) {
+        return Jwts.builder()
+                .subject("42")
+                .issuedAt(new Date())
+                .claim("email", "customer@example.com")
+                .claim("fullName", "Customer \"Quoted\" Näme")
+                .claim("role", "ROLE_CUSTOMER")
+                .claim("userId", 42L)
+                .expiration(new Date(System.currentTimeMillis() + expiresInMs));
+    }
+
+    @Test
+    void verify_ValidToken_ReturnsForwardedClaims() {
+        // Arrange
+        String jwt = token(60_000).signWith(key).compact();
+
+        // Act
+        JwtClaims claims = verifier.verify(jwt);
+
+        // Assert
+        assertEquals(42, claims.userId());
+        assertEquals("ROLE_CUSTOMER", claims.role());
+        assertEquals("customer@example.com", claims.email());
+        assertEquals("Customer \"Quoted\" Näme", claims.fullName());
+        assertTrue(claims.expiresAtMillis() > System.currentTimeMillis());
+    }
+
+    @Test
+    void verify_SkipsUnknownClaims() {
+        // Arrange
+        String jwt = token(60_000)
+                .claim("tags", java.util.List.of("a", "b"))
+                .claim("nested", java.util.Map.of("k", java.util.Map.of("x", true)))
+                .signWith(key).compact();
+
+        // Act & Assert
+        assertEquals("customer@example.com", verifier.verify(jwt).email());
+    }
+
+    @Test
+    void verify_TamperedPayload_ThrowsSignatureException() {
+        // Arrange
+        String jwt = token(60_000).signWith(key).compact();
+        String forged = Jwts.builder().claim("userId", 1L).claim("role", "ROLE_ADMIN")
+                .signWith(Keys.hmacShaKeyFor(new byte[32])).compact();
+        String[] parts = jwt.split("\\.");
+        String tampered = parts[0] + "." + forged.split("\\.")[1] + "." + parts[2];
+
+        // Act & Assert
+        assertThrows(SignatureException.class, () -> verifier.verify(tampered));
+    }
+
+    @Test
+    void verify_ExpiredToken_ThrowsExpiredJwtException() {
+        // Arrange
+        String jwt = token(-1_000).signWith(key).compact();
+
+        // Act & Assert
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(jwt));
+    }
+
+    @Test
+    void verify_OtherAlgorithm_ThrowsUnsupportedJwtException() {
+        // Arrange
+        String jwt = token(60_000).signWith(Keys.hmacShaKeyFor(new byte[48]), Jwts.SIG.HS384).compact();
+
+        // Act & Assert
+        assertThrows(UnsupportedJwtException.class, () -> verifier.verify(jwt));
+    }
+
+    @Test
+    void verify_MalformedToken_ThrowsMalformedJwtException() {
+        // Arrange
+        String header = token(60_000).signWith(key).compact().split("\\.")[0];
+
+        // Act & Assert
+        assertThrows(MalformedJwtException.class, () -> verifier.verify("not-a-jwt"));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify("a.b.c.d"));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(header + ".e30.%%%"));
+    }
+
+    @Test
+    void verify_NumbersOutOfRange_ThrowMalformedJwtException() {
+        // Arrange: signed, so only the parsing of the claim set can reject them
+        String userIdOverInt = Jwts.builder().content("{\"userId\":2147483648}").signWith(key).compact();
+        String userIdOverLong = Jwts.builder().content("{\"userId\":99999999999999999999}").signWith(key).compact();
+        String expOverMillis = Jwts.builder().content("{\"exp\":9223372036854775807}").signWith(key).compact();
+        String badExponent = Jwts.builder().content("{\"exp\":1e}").signWith(key).compact();
+
+        // Act & Assert
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(userIdOverInt));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(userIdOverLong));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(expOverMillis));
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(badExponent));
+    }
+
+    @Test
+    void verify_KeyRing_SelectsKeyByKid() {
+        // Arrange
+        SecretKey rotated = Keys.hmacShaKeyFor(new byte[32]);
+        HmacJwtVerifier ring = new HmacJwtVerifier(Map.of("2025-06", key, "2025-12", rotated), key);
+        String current = token(60_000).header().keyId("2025-12").and().signWith(rotated).compact();
+        String previous = token(60_000).header().keyId("2025-06").and().signWith(key).compact();
+        String legacy = token(60_000).signWith(key).compact();
+
+        // Act & Assert
+        assertEquals(42, ring.verify(current).userId());
+        assertEquals(42, ring.verify(previous).userId());
+        assertEquals(42, ring.verify(legacy).userId());
+    }
+
+    @Test
+    void verify_KeyRing_RejectsUnknownOrWrongKid() {
+        // Arrange
+        SecretKey rotated = Keys.hmacShaKeyFor(new byte[32]);
+        HmacJwtVerifier ring = new HmacJwtVerifier(Map.of("2025-12", rotated), null);
+        String unknownKid = token(60_000).header().keyId("retired").and().signWith(rotated).compact();
+        String wrongKey = token(60_000).header().keyId("2025-12").and().signWith(key).compact();
+        String noKid = token(60_000).signWith(rotated).compact();
+
+        // Act & Assert
+        assertThrows(UnsupportedJwtException.class, () -> ring.verify(unknownKid));
+        assertThrows(SignatureException.class, () -> ring.verify(wrongKey));
+        assertThrows(UnsupportedJwtException.class, () -> ring.verify(noKid));
+    }
+}
@@ -0,0 +1,75 @@
+package com.ndungutse.api_gateway.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JwtClaimsResolverTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGhhdC1pcy0zMi1ieXRlcy1sb25n";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtClaimsResolver resolver;
+
+    public JwtClaimsResolverTest() {
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setSecret(SECRET);
+        resolver = new JwtClaimsResolver(new VerifiedTokenCache(meterRegistry, 100, Duration.ofMinutes(15)),
+                new JwtKeyRing(properties), meterRegistry);
+    }
+
+    private static MockServerHttpRequest bearer(String token) {
+        return MockServerHttpRequest.get("/api/v1/orders").header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build();
+    }
+
+    private long timerCount(String cacheResult) {
+        return meterRegistry.get("gateway.jwt.verification").tag("cache", cacheResult).timer().count();
+    }
+
+    @Test
+    void resolve_SameTokenTwice_VerifiesOnceThenHitsCache() {
+        // Arrange
+        SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET));
+        String token = Jwts.builder()
+                .subject("7")
+                .claim("role", "ROLE_CUSTOMER")
+                .claim("userId", 7)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(key)
+                .compact();
+
+        // Act
+        JwtClaims first = resolver.resolve(bearer(token));
+        JwtClaims second = resolver.resolve(bearer(token));
+
+        // Assert
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, timerCount("miss"));
+        assertEquals(1, timerCount("hit"));
+    }
+
+    @Test
+    void resolve_InvalidToken_ReturnsNullAndCountsMiss() {
+        // Act
+        JwtClaims claims = resolver.resolve(bearer("not-a-jwt"));
+
+        // Assert
+        assertNull(claims);
+        assertEquals(1, timerCount("miss"));
+        assertEquals(0, timerCount("hit"));
+    }
+}
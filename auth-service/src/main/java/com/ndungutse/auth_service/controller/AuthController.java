@@ -8,8 +8,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.ndungutse.auth_service.dto.LoginRequest;
 import com.ndungutse.auth_service.dto.LoginResponse;
+import com.ndungutse.auth_service.dto.RefreshTokenRequest;
 import com.ndungutse.auth_service.service.AuthenticationService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -22,9 +24,27 @@ public class AuthController {
     }
 
     @PostMapping("/signin")
-    public ResponseEntity<LoginResponse> signin(@Valid @RequestBody LoginRequest loginRequest) {
-        LoginResponse loginResponse = authService.login(loginRequest);
+    public ResponseEntity<LoginResponse> signin(@Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
+        LoginResponse loginResponse = authService.login(loginRequest, clientIp(request));
         return ResponseEntity.ok(loginResponse);
 
     }
+
+    // New access token (and rotated refresh token) without re-checking the password
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return ResponseEntity.ok(authService.refresh(refreshTokenRequest));
+    }
+
+    // Requests come through the gateway, which appends the caller's address to X-Forwarded-For.
+    // The last hop is the one the gateway saw, earlier entries can be set by the client
+    private static String clientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] hops = forwardedFor.split(",");
+            return hops[hops.length - 1].trim();
+        }
+        return request.getRemoteAddr();
+    }
 }
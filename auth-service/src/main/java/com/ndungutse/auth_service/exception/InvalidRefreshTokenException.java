@@ -0,0 +1,8 @@
+package com.ndungutse.auth_service.exception;
+
+// Unknown, expired, revoked or reused refresh token
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ndungutse.auth_service.exception;
+
+// Thrown when the password hashing executor is saturated and a sign-in is shed
+public class LoginCapacityExceededException extends RuntimeException {
+    public LoginCapacityExceededException(String message) {
+        super(message);
+    }
+}
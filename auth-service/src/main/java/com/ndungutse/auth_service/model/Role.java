@@ -3,8 +3,11 @@ package com.ndungutse.auth_service.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.ndungutse.auth_service.service.UserCacheEvictionListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -17,6 +20,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(UserCacheEvictionListener.class)
 @Table(name = "roles")
 @Getter
 @Setter
@@ -1,7 +1,10 @@
 package com.ndungutse.auth_service.model;
 
+import com.ndungutse.auth_service.service.UserCacheEvictionListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -16,6 +19,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
+@EntityListeners(UserCacheEvictionListener.class)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
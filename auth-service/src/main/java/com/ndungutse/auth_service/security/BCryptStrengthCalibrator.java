@@ -0,0 +1,62 @@
+package com.ndungutse.auth_service.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+// Picks the largest BCrypt cost whose hash time on this machine stays within the budget.
+// Each cost step doubles the work, so the cost is extrapolated from a measurement at the
+// minimum strength and then confirmed by measuring the candidate itself.
+public final class BCryptStrengthCalibrator {
+    private static final Logger logger = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    private static final int SAMPLES = 3;
+    private static final String PROBE = "calibration-probe-password";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(Duration budget, int minStrength, int maxStrength) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException(
+                    "BCrypt strength range must be within 4..31, got " + minStrength + ".." + maxStrength);
+        }
+
+        // Warm up, the first hash pays for class loading and JIT
+        BCrypt.hashpw(PROBE, BCrypt.gensalt(minStrength));
+
+        long budgetNanos = budget.toNanos();
+        long baseNanos = measure(minStrength);
+        int strength = minStrength;
+        while (strength < maxStrength && (baseNanos << (strength + 1 - minStrength)) <= budgetNanos) {
+            strength++;
+        }
+
+        // The extrapolation can be off on noisy hosts, step down until the real cost fits
+        long nanos = strength == minStrength ? baseNanos : measure(strength);
+        while (strength > minStrength && nanos > budgetNanos) {
+            strength--;
+            nanos = measure(strength);
+        }
+
+        logger.info("BCrypt strength calibrated to {} ({} ms per hash, budget {} ms)",
+                strength, Duration.ofNanos(nanos).toMillis(), budget.toMillis());
+        return strength;
+    }
+
+    // Median of a few hashes at the given strength
+    private static long measure(int strength) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            String salt = BCrypt.gensalt(strength);
+            long start = System.nanoTime();
+            BCrypt.hashpw(PROBE, salt);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
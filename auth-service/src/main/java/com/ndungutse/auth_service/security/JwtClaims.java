@@ -0,0 +1,12 @@
+package com.ndungutse.auth_service.security;
+
+// Claims carried by the access tokens issued in JwtUtils
+public record JwtClaims(String subject, Long userId, String role, String email, String fullName,
+        long expiresAtMillis) {
+
+    // Built by HmacJwtVerifier from a verified claim set
+    static JwtClaims of(String subject, Long userId, String role, String email, String fullName,
+            long expiresAtMillis) {
+        return new JwtClaims(subject, userId, role, email, fullName, expiresAtMillis);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ndungutse.auth_service.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// spring.security.jwt.* key settings: keys are Base64 HMAC secrets by kid, active-kid signs new tokens
+// and secret is the legacy key, used for tokens without a kid (and for signing when no keys are configured)
+@Component
+@ConfigurationProperties(prefix = "spring.security.jwt")
+@Data
+public class JwtKeyProperties {
+    private String secret;
+    private Map<String, String> keys = new LinkedHashMap<>();
+    private String activeKid;
+}
@@ -0,0 +1,64 @@
+package com.ndungutse.auth_service.security;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+// Every configured key is decoded once at startup; a token's kid header selects its key with a map lookup.
+// New tokens are signed with the active key and carry its kid. Keeping the retired key under its kid
+// (or as the legacy secret) lets tokens signed with it verify until they expire.
+@Component
+public class JwtKeyRing {
+    private final HmacJwtVerifier verifier;
+    private final String activeKid;
+    private final SecretKey signingKey;
+
+    public JwtKeyRing(JwtKeyProperties properties) {
+        Map<String, SecretKey> keys = new HashMap<>();
+        properties.getKeys().forEach((kid, secret) -> keys.put(kid, decode(secret)));
+        SecretKey legacyKey = StringUtils.hasText(properties.getSecret()) ? decode(properties.getSecret()) : null;
+
+        if (StringUtils.hasText(properties.getActiveKid())) {
+            this.activeKid = properties.getActiveKid();
+            this.signingKey = keys.get(activeKid);
+            if (signingKey == null) {
+                throw new IllegalStateException(
+                        "spring.security.jwt.active-kid '" + activeKid + "' is not in spring.security.jwt.keys");
+            }
+        } else if (keys.isEmpty() && legacyKey != null) {
+            // Single secret, tokens are issued without a kid as before
+            this.activeKid = null;
+            this.signingKey = legacyKey;
+        } else {
+            throw new IllegalStateException(keys.isEmpty()
+                    ? "Configure spring.security.jwt.keys or spring.security.jwt.secret"
+                    : "spring.security.jwt.active-kid is required when spring.security.jwt.keys is set");
+        }
+
+        this.verifier = new HmacJwtVerifier(keys, legacyKey);
+    }
+
+    public HmacJwtVerifier verifier() {
+        return verifier;
+    }
+
+    // Null when signing with the legacy secret
+    public String activeKid() {
+        return activeKid;
+    }
+
+    public SecretKey signingKey() {
+        return signingKey;
+    }
+
+    private static SecretKey decode(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+}
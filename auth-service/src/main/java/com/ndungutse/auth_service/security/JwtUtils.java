@@ -1,10 +1,7 @@
 package com.ndungutse.auth_service.security;
 
-import java.security.Key;
 import java.util.Date;
 
-import javax.crypto.SecretKey;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,24 +10,26 @@ import org.springframework.stereotype.Component;
 
 import com.ndungutse.auth_service.service.CustomUserDetails;
 
-import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${spring.security.jwt.secret}")
-    private String jwtSecret;
-
     @Value("${spring.security.jwt.expirationMs}")
     private String jwtExpirationMS;
 
+    private final JwtKeyRing keyRing;
+    private final HmacJwtVerifier verifier;
+
+    // Keys are decoded once by the key ring instead of on every sign and verify
+    public JwtUtils(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.verifier = keyRing.verifier();
+    }
+
     // Get Jwt from header of the request
     public String getJwtFromHeader(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
@@ -54,7 +53,12 @@ public class JwtUtils {
                 .findFirst()
                 .map(GrantedAuthority::getAuthority)
                 .orElse(null);
-        return Jwts.builder().subject(String.valueOf(userDetails
+        JwtBuilder builder = Jwts.builder();
+        // kid tells verifiers which key of the ring to use
+        if (keyRing.activeKid() != null) {
+            builder.header().keyId(keyRing.activeKid());
+        }
+        return builder.subject(String.valueOf(userDetails
                 .getUserId())).issuedAt(new Date())
                 .claim("email", userDetails.getUsername())
                 .claim("fullName", userDetails.getUser().getFullName())
@@ -62,59 +66,12 @@ public class JwtUtils {
                         userRole)
                 .claim("userId", userDetails.getUserId())
                 .expiration(new Date((new Date()).getTime() + Long.parseLong(jwtExpirationMS)))
-                .signWith(key()).compact();
-
-    }
-
-    // Verify and Decode and extract payload from Jwt token
-    public String getUserNameFromJwtToken(String token) {
-        try {
-            String username = Jwts.parser()
-                    .verifyWith((SecretKey) key())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload()
-                    .getSubject();
-
-            return username;
-
-            // Tampered JWT
-        } catch (io.jsonwebtoken.security.SignatureException e) {
-            throw new RuntimeException("Invalid JWT signature");
-
-            // Invalid JWT
-        } catch (MalformedJwtException e) {
-            throw new RuntimeException("Invalid JWT token");
-
-            // Expired JWT
-        } catch (ExpiredJwtException e) {
-            throw new RuntimeException("Expired JWT token");
-        }
+                .signWith(keyRing.signingKey()).compact();
 
     }
 
-    // Key encription
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    // Validate Jwt token
-    public boolean validateJwtToken(String authToken) {
-
-        try {
-            System.out.println("Validating token");
-            Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
-            return true;
-        } catch (UnsupportedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
-            return false;
-        } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
-            return false;
-        } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
-            return false;
-        }
-
+    // Verify the token once and return all of its claims
+    public JwtClaims parseJwtToken(String token) {
+        return verifier.verify(token);
     }
 }
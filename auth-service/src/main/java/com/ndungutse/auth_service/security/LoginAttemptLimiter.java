@@ -0,0 +1,197 @@
+package com.ndungutse.auth_service.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ndungutse.auth_service.exception.LoginRateLimitedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Sliding-window limit on sign-in attempts per email and per client IP, checked before any password hashing.
+// The window is approximated with two fixed buckets: previous * (share of the window not yet elapsed) + current.
+// Keys live in lock-striped, access-ordered maps, each capped so the total never exceeds max-keys; the least
+// recently seen key is dropped first, and a periodic sweep removes keys whose buckets have both expired.
+@Component
+public class LoginAttemptLimiter {
+    private static final int STRIPES = 64;
+    private static final String EMAIL_PREFIX = "e:";
+    private static final String IP_PREFIX = "i:";
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int maxAttemptsPerEmail;
+    private final int maxAttemptsPerIp;
+    private final long windowMillis;
+    private final Clock clock;
+    private final Counter rejectedByEmail;
+    private final Counter rejectedByIp;
+
+    @Autowired
+    public LoginAttemptLimiter(MeterRegistry meterRegistry,
+            @Value("${auth.login-limiter.max-attempts-per-email:5}") int maxAttemptsPerEmail,
+            @Value("${auth.login-limiter.max-attempts-per-ip:50}") int maxAttemptsPerIp,
+            @Value("${auth.login-limiter.window:1m}") Duration window,
+            @Value("${auth.login-limiter.max-keys:100000}") int maxKeys) {
+        this(meterRegistry, maxAttemptsPerEmail, maxAttemptsPerIp, window, maxKeys, Clock.systemUTC());
+    }
+
+    LoginAttemptLimiter(MeterRegistry meterRegistry, int maxAttemptsPerEmail, int maxAttemptsPerIp,
+            Duration window, int maxKeys, Clock clock) {
+        this.maxAttemptsPerEmail = maxAttemptsPerEmail;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+
+        int stripeCapacity = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+
+        this.rejectedByEmail = Counter.builder("auth.login.limiter.rejected").tag("key", "email")
+                .description("Sign-ins rejected by the attempt limiter").register(meterRegistry);
+        this.rejectedByIp = Counter.builder("auth.login.limiter.rejected").tag("key", "ip")
+                .description("Sign-ins rejected by the attempt limiter").register(meterRegistry);
+        Gauge.builder("auth.login.limiter.keys", this, LoginAttemptLimiter::size)
+                .description("Emails and IPs currently tracked").register(meterRegistry);
+        Gauge.builder("auth.login.limiter.max-keys", () -> stripeCapacity * STRIPES).register(meterRegistry);
+    }
+
+    // Record a sign-in attempt, or throw LoginRateLimitedException if the IP or the email is over its limit
+    public void acquire(String email, String clientIp) {
+        long now = clock.millis();
+        if (clientIp != null) {
+            long retryAfterMillis = tryAcquire(IP_PREFIX + clientIp, maxAttemptsPerIp, now);
+            if (retryAfterMillis > 0) {
+                rejectedByIp.increment();
+                throw rejected(retryAfterMillis);
+            }
+        }
+        long retryAfterMillis = tryAcquire(emailKey(email), maxAttemptsPerEmail, now);
+        if (retryAfterMillis > 0) {
+            rejectedByEmail.increment();
+            throw rejected(retryAfterMillis);
+        }
+    }
+
+    // A successful sign-in clears the email's attempts, the IP keeps counting
+    public void onSuccess(String email) {
+        String key = emailKey(email);
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login-limiter.sweep-interval:30s}")
+    public void sweep() {
+        long currentWindow = clock.millis() / windowMillis;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.values().removeIf(counter -> counter.window < currentWindow - 1);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    // 0 when the attempt is allowed and counted, otherwise the millis until it would be
+    private long tryAcquire(String key, int limit, long now) {
+        long window = now / windowMillis;
+        long elapsedMillis = now - window * windowMillis;
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            WindowCounter counter = stripe.get(key);
+            if (counter == null) {
+                counter = new WindowCounter(window);
+                stripe.put(key, counter);
+            }
+            counter.roll(window);
+
+            double remainingShare = 1.0 - (double) elapsedMillis / windowMillis;
+            if (counter.previous * remainingShare + counter.current + 1 <= limit) {
+                counter.current++;
+                return 0;
+            }
+            return retryAfterMillis(counter, limit, elapsedMillis);
+        }
+    }
+
+    // When previous * (1 - f) + current + 1 drops to the limit, f being the elapsed share of the window
+    private long retryAfterMillis(WindowCounter counter, int limit, long elapsedMillis) {
+        int room = limit - 1 - counter.current;
+        if (room >= 0 && counter.previous > 0) {
+            long at = (long) Math.ceil(windowMillis * (1.0 - (double) room / counter.previous));
+            return Math.max(1, at - elapsedMillis);
+        }
+        // Over the limit within the current bucket alone: wait for it to become the previous one
+        long untilNextWindow = windowMillis - elapsedMillis;
+        double shareToWait = 1.0 - (double) (limit - 1) / counter.current;
+        return untilNextWindow + (long) Math.ceil(windowMillis * Math.max(0, shareToWait));
+    }
+
+    private static LoginRateLimitedException rejected(long retryAfterMillis) {
+        long retryAfterSeconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        return new LoginRateLimitedException("Too many sign-in attempts. Please retry later.", retryAfterSeconds);
+    }
+
+    private static String emailKey(String email) {
+        return EMAIL_PREFIX + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Stripe stripe(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    // Two fixed buckets per key: 16 bytes of counters plus the object header
+    private static final class WindowCounter {
+        private long window;
+        private int current;
+        private int previous;
+
+        private WindowCounter(long window) {
+            this.window = window;
+        }
+
+        private void roll(long now) {
+            if (window == now) {
+                return;
+            }
+            previous = window == now - 1 ? current : 0;
+            current = 0;
+            window = now;
+        }
+    }
+
+    // Access-ordered map that drops its least recently used key once full; guarded by its own monitor
+    private static final class Stripe extends LinkedHashMap<String, WindowCounter> {
+        private final int capacity;
+
+        private Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WindowCounter> eldest) {
+            return size() > capacity;
+        }
+    }
+}
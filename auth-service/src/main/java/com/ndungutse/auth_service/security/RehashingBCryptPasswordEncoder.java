@@ -0,0 +1,34 @@
+package com.ndungutse.auth_service.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// BCrypt encoder that asks for a rehash when the stored cost is lower than the configured one, so weak hashes
+// are raised to the calibrated strength after the next login. A stronger stored hash is kept: a calibration on
+// a faster or busier node must never lower the cost of existing hashes.
+// Unlike the stock encoder, a malformed hash is left alone instead of failing the login.
+public class RehashingBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private final int strength;
+
+    public RehashingBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Encoded form: $2a$10$<22 chars salt><31 chars hash>
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ndungutse.auth_service.security;
+
+import java.security.Principal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Identity rebuilt from verified JWT claims, without touching the users table
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPrincipal implements Principal {
+
+    private String id;
+    private String email;
+    private String fullName;
+    private String role;
+
+    @Override
+    public String getName() {
+        return email; // Same username CustomUserDetails exposes
+    }
+
+    public String getUserId() {
+        return id;
+    }
+}
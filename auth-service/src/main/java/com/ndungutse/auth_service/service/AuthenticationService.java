@@ -7,9 +7,11 @@ import org.springframework.stereotype.Service;
 
 import com.ndungutse.auth_service.dto.LoginRequest;
 import com.ndungutse.auth_service.dto.LoginResponse;
+import com.ndungutse.auth_service.dto.RefreshTokenRequest;
 import com.ndungutse.auth_service.repository.RoleRepository;
 import com.ndungutse.auth_service.repository.UserRepository;
 import com.ndungutse.auth_service.security.JwtUtils;
+import com.ndungutse.auth_service.security.LoginAttemptLimiter;
 import org.springframework.security.core.Authentication;
 
 @Service
@@ -19,32 +21,64 @@ public class AuthenticationService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
 
     public AuthenticationService(AuthenticationManager authenticationManager, JwtUtils jwtUtils,
-            UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+            UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+            PasswordHashingExecutor passwordHashingExecutor, RefreshTokenService refreshTokenService,
+            LoginAttemptLimiter loginAttemptLimiter) {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.refreshTokenService = refreshTokenService;
+        this.loginAttemptLimiter = loginAttemptLimiter;
     }
 
-    public LoginResponse login(LoginRequest loginRequest) {
-        // Authenticate user with username or email
-        Authentication authentication = authenticationManager.authenticate(
+    public LoginResponse login(LoginRequest loginRequest, String clientIp) {
+        // Over-limit attempts are rejected before any password hashing
+        loginAttemptLimiter.acquire(loginRequest.getEmail(), clientIp);
+
+        // Authenticate user with username or email.
+        // BCrypt runs on the bounded hashing pool, not on the request thread
+        Authentication authentication = passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getEmail(),
-                        loginRequest.getPassword()));
+                        loginRequest.getPassword())));
 
         // Get authenticated user details
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        loginAttemptLimiter.onSuccess(loginRequest.getEmail());
 
-        // Generate JWT token
+        // Generate JWT token and start a refresh token family
         String token = jwtUtils.generateJwtTokenFromUsername(userDetails);
+        String refreshToken = refreshTokenService.issue(userDetails.getUser());
 
         // Build and return response
         return LoginResponse.builder()
                 .token(token)
+                .refreshToken(refreshToken)
+                .userId(userDetails.getUserId())
+                .email(userDetails.getUser().getEmail())
+                .role(userDetails.getRoleName())
+                .fullName(userDetails.getUser().getFullName())
+                .build();
+    }
+
+    // A database lookup instead of a BCrypt verification
+    public LoginResponse refresh(RefreshTokenRequest refreshTokenRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
+        CustomUserDetails userDetails = new CustomUserDetails(rotation.user());
+
+        String token = jwtUtils.generateJwtTokenFromUsername(userDetails);
+
+        return LoginResponse.builder()
+                .token(token)
+                .refreshToken(rotation.refreshToken())
                 .userId(userDetails.getUserId())
                 .email(userDetails.getUser().getEmail())
                 .role(userDetails.getRoleName())
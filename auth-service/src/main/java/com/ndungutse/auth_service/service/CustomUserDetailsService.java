@@ -1,36 +1,44 @@
 package com.ndungutse.auth_service.service;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import com.ndungutse.auth_service.model.User;
 import com.ndungutse.auth_service.repository.UserRepository;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        // First try to find user by email
-        User user = userRepository.findByEmail(email)
-                .orElse(null);
-
-        // If not found, try to find by email
-        if (user == null) {
-            user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new UsernameNotFoundException(
-                            "User not found with email: " + email));
-        }
-
-        return new CustomUserDetails(user);
+        // Served from the cache, unknown emails included, until the entry expires or the user changes
+        return userDetailsCache.get(email, () -> userRepository.findByEmail(email).map(CustomUserDetails::new))
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "User not found with email: " + email));
+    }
+
+    // Called by DaoAuthenticationProvider after a successful login when the stored hash needs rehashing.
+    // The cached user may be stale, so the row is re-read by id; the entity listener evicts the cache on update
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomUserDetails details = (CustomUserDetails) user;
+        return userRepository.findById(details.getUserId())
+                .map(stored -> {
+                    stored.setPassword(newPassword);
+                    return new CustomUserDetails(userRepository.save(stored));
+                })
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "User not found with email: " + user.getUsername()));
     }
 
 }
@@ -0,0 +1,114 @@
+package com.ndungutse.auth_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ndungutse.auth_service.exception.InvalidRefreshTokenException;
+import com.ndungutse.auth_service.model.RefreshToken;
+import com.ndungutse.auth_service.model.User;
+import com.ndungutse.auth_service.repository.RefreshTokenRepository;
+
+// Opaque refresh tokens with rotation: each token can be exchanged once for a new access token
+// and a new refresh token. Presenting an already rotated token means it leaked, so the whole
+// family is revoked and its holder has to sign in again. Rows are purged once they have been expired
+// for the retention window; until then a replayed token still finds its row and revokes the family.
+@Service
+public class RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final Duration purgeRetention;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+            @Value("${auth.refresh-token.ttl:7d}") Duration ttl,
+            @Value("${auth.refresh-token.purge-retention:7d}") Duration purgeRetention) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+        this.purgeRetention = purgeRetention;
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    // Start a new family, on sign in
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    // Exchange a refresh token for a new one in the same family.
+    // Reuse detection must commit the revocation even though the call fails
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        if (stored.isRevoked()) {
+            throw new InvalidRefreshTokenException("Refresh token has been revoked");
+        }
+        if (stored.isUsed()) {
+            int revoked = refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            logger.warn("Refresh token reuse detected for user {}, revoked {} tokens of family {}",
+                    stored.getUser().getId(), revoked, stored.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+        if (stored.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+
+        stored.setUsed(true);
+        String next = issue(stored.getUser(), stored.getFamilyId());
+        return new Rotation(stored.getUser(), next);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token.purge-interval:1h}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(Instant.now().minus(purgeRetention));
+        if (deleted > 0) {
+            logger.info("Purged {} refresh tokens expired for more than {}", deleted, purgeRetention);
+        }
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = BASE64_URL.encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .user(user)
+                .familyId(familyId)
+                .expiresAt(Instant.now().plus(ttl))
+                .build());
+        return rawToken;
+    }
+
+    // The token is 256 random bits, a plain SHA-256 is enough to keep the stored value useless
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return BASE64_URL.encodeToString(sha256.digest(rawToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ndungutse.auth_service.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ndungutse.auth_service.model.Role;
+import com.ndungutse.auth_service.model.User;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// JPA listener on User and Role, instantiated by Hibernate through Spring's bean container.
+// Evicts right away and once more after commit, so a concurrent login cannot re-cache the old row
+// between the flush and the commit.
+public class UserCacheEvictionListener {
+    private final UserDetailsCache userDetailsCache;
+
+    public UserCacheEvictionListener(UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Runnable eviction = switch (entity) {
+            case User user -> () -> userDetailsCache.evict(user);
+            case Role role -> () -> userDetailsCache.evict(role);
+            default -> null;
+        };
+        if (eviction == null) {
+            return;
+        }
+
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ndungutse.auth_service.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ndungutse.auth_service.model.Role;
+import com.ndungutse.auth_service.model.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Bounded in-process cache of CustomUserDetails keyed by email.
+// Unknown emails are cached as an empty entry with a shorter TTL, so repeated
+// attempts against non-existent accounts do not reach the database either.
+// Entries are evicted by UserCacheEvictionListener whenever a User or Role changes.
+@Component
+public class UserDetailsCache {
+    public static final String CACHE_NAME = "user-details";
+
+    private final Cache<String, Optional<CustomUserDetails>> cache;
+
+    public UserDetailsCache(MeterRegistry meterRegistry,
+            @Value("${auth.user-cache.max-size:10000}") long maxSize,
+            @Value("${auth.user-cache.ttl:5m}") Duration ttl,
+            @Value("${auth.user-cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new EntryExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<CustomUserDetails> get(String email, Supplier<Optional<CustomUserDetails>> loader) {
+        return cache.get(email, key -> loader.get());
+    }
+
+    // Drop the user's entry, including one still cached under a previous email
+    public void evict(User user) {
+        if (user.getEmail() != null) {
+            cache.invalidate(user.getEmail());
+        }
+        if (user.getId() != null) {
+            cache.asMap().values().removeIf(details -> details.isPresent()
+                    && user.getId().equals(details.get().getUserId()));
+        }
+    }
+
+    // Drop every user holding the role, their authorities come from it
+    public void evict(Role role) {
+        cache.asMap().values().removeIf(details -> details.isPresent()
+                && details.get().getUser().getRole() != null
+                && (role.getId() != null
+                        ? role.getId().equals(details.get().getUser().getRole().getId())
+                        : role.getRoleName().equals(details.get().getRoleName())));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private static final class EntryExpiry implements Expiry<String, Optional<CustomUserDetails>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private EntryExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String email, Optional<CustomUserDetails> details, long currentTime) {
+            return details.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String email, Optional<CustomUserDetails> details, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(email, details, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String email, Optional<CustomUserDetails> details, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
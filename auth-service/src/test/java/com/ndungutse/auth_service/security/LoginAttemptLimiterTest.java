@@ -0,0 +1,144 @@
+package com.ndungutse.auth_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+import com.ndungutse.auth_service.exception.LoginRateLimitedException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LoginAttemptLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+
+    private LoginAttemptLimiter limiter(int perEmail, int perIp, int maxKeys) {
+        return new LoginAttemptLimiter(meterRegistry, perEmail, perIp, Duration.ofMinutes(1), maxKeys, clock);
+    }
+
+    @Test
+    void acquire_OverEmailLimit_ThrowsWithRetryAfter() {
+        // Arrange
+        LoginAttemptLimiter limiter = limiter(3, 100, 1000);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("User@Example.com", "10.0.0." + i);
+        }
+
+        // Act
+        LoginRateLimitedException e = assertThrows(LoginRateLimitedException.class,
+                () -> limiter.acquire("user@example.com", "10.0.0.9"));
+
+        // Assert
+        assertTrue(e.getRetryAfterSeconds() > 0);
+        assertEquals(1.0, meterRegistry.get("auth.login.limiter.rejected").tag("key", "email").counter().count());
+    }
+
+    @Test
+    void acquire_OverIpLimit_ThrowsForAnyEmail() {
+        // Arrange
+        LoginAttemptLimiter limiter = limiter(100, 2, 1000);
+        limiter.acquire("a@example.com", "10.0.0.1");
+        limiter.acquire("b@example.com", "10.0.0.1");
+
+        // Act & Assert
+        assertThrows(LoginRateLimitedException.class, () -> limiter.acquire("c@example.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> limiter.acquire("c@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void acquire_SlidingWindow_PreviousBucketDecays() {
+        // Arrange
+        LoginAttemptLimiter limiter = limiter(4, 100, 1000);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire("user@example.com", null);
+        }
+
+        // Act & Assert
+        // Just into the next window the previous 4 attempts still weigh almost fully
+        clock.advance(Duration.ofSeconds(61));
+        assertThrows(LoginRateLimitedException.class, () -> limiter.acquire("user@example.com", null));
+
+        // Halfway through it they count for 2, leaving room for 2 more attempts
+        clock.advance(Duration.ofSeconds(29));
+        limiter.acquire("user@example.com", null);
+        limiter.acquire("user@example.com", null);
+        assertThrows(LoginRateLimitedException.class, () -> limiter.acquire("user@example.com", null));
+    }
+
+    @Test
+    void onSuccess_ClearsEmailAttempts() {
+        // Arrange
+        LoginAttemptLimiter limiter = limiter(2, 100, 1000);
+        limiter.acquire("user@example.com", null);
+        limiter.acquire("user@example.com", null);
+
+        // Act
+        limiter.onSuccess("user@example.com");
+
+        // Assert
+        assertDoesNotThrow(() -> limiter.acquire("user@example.com", null));
+    }
+
+    @Test
+    void acquire_HighCardinalityKeys_MemoryStaysBounded() {
+        // Arrange
+        int maxKeys = 10_000;
+        LoginAttemptLimiter limiter = limiter(5, 50, maxKeys);
+
+        // Act: one attempt each from a million distinct emails and IPs
+        for (int i = 0; i < 1_000_000; i++) {
+            limiter.acquire("user" + i + "@example.com", "10." + (i >>> 16) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff));
+        }
+
+        // Assert
+        assertTrue(limiter.size() <= maxKeys, "tracked keys: " + limiter.size());
+        assertEquals(limiter.size(), meterRegistry.get("auth.login.limiter.keys").gauge().value());
+    }
+
+    @Test
+    void sweep_RemovesKeysOlderThanTwoWindows() {
+        // Arrange
+        LoginAttemptLimiter limiter = limiter(5, 50, 1000);
+        limiter.acquire("user@example.com", "10.0.0.1");
+        clock.advance(Duration.ofSeconds(90));
+        limiter.acquire("other@example.com", null);
+
+        // Act
+        clock.advance(Duration.ofSeconds(60));
+        limiter.sweep();
+
+        // Assert
+        assertEquals(1, limiter.size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ndungutse.auth_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class RehashingBCryptPasswordEncoderTest {
+
+    private final RehashingBCryptPasswordEncoder encoder = new RehashingBCryptPasswordEncoder(11);
+
+    @Test
+    void upgradeEncoding_LowerStoredCost_AsksForRehash() {
+        // Arrange
+        String stored = new RehashingBCryptPasswordEncoder(10).encode("secret");
+
+        // Act & Assert
+        assertTrue(encoder.upgradeEncoding(stored));
+    }
+
+    @Test
+    void upgradeEncoding_SameOrHigherStoredCost_KeepsHash() {
+        // Arrange
+        String same = encoder.encode("secret");
+        String higher = new RehashingBCryptPasswordEncoder(12).encode("secret");
+
+        // Act & Assert
+        assertFalse(encoder.upgradeEncoding(same));
+        assertFalse(encoder.upgradeEncoding(higher));
+    }
+
+    @Test
+    void upgradeEncoding_MalformedHash_KeepsHash() {
+        // Act & Assert
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+}
@@ -0,0 +1,109 @@
+package com.ndungutse.auth_service.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.ndungutse.auth_service.exception.InvalidRefreshTokenException;
+import com.ndungutse.auth_service.model.RefreshToken;
+import com.ndungutse.auth_service.model.User;
+import com.ndungutse.auth_service.repository.RefreshTokenRepository;
+
+public class RefreshTokenServiceTest {
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final RefreshTokenService service = new RefreshTokenService(repository, Duration.ofDays(7),
+            Duration.ofDays(3));
+    private final List<RefreshToken> saved = new ArrayList<>();
+    private final User user = User.builder().id(1L).email("user@example.com").build();
+
+    @BeforeEach
+    void setUp() {
+        // The repository keeps saved tokens in a list and looks them up by hash
+        when(repository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            saved.add(token);
+            return token;
+        });
+        when(repository.findByTokenHash(anyString())).thenAnswer(invocation -> saved.stream()
+                .filter(token -> token.getTokenHash().equals(invocation.getArgument(0)))
+                .findFirst());
+        when(repository.revokeFamily(anyString())).thenAnswer(invocation -> {
+            List<RefreshToken> family = saved.stream()
+                    .filter(token -> token.getFamilyId().equals(invocation.getArgument(0)))
+                    .toList();
+            family.forEach(token -> token.setRevoked(true));
+            return family.size();
+        });
+    }
+
+    @Test
+    void rotate_FreshToken_IssuesNextTokenInSameFamily() {
+        // Arrange
+        String first = service.issue(user);
+
+        // Act
+        RefreshTokenService.Rotation rotation = service.rotate(first);
+
+        // Assert
+        assertNotEquals(first, rotation.refreshToken());
+        assertEquals(user, rotation.user());
+        assertEquals(2, saved.size());
+        assertTrue(saved.get(0).isUsed());
+        assertFalse(saved.get(1).isUsed());
+        assertEquals(saved.get(0).getFamilyId(), saved.get(1).getFamilyId());
+    }
+
+    @Test
+    void rotate_AlreadyRotatedToken_RevokesFamily() {
+        // Arrange
+        String first = service.issue(user);
+        String second = service.rotate(first).refreshToken();
+
+        // Act
+        InvalidRefreshTokenException e = assertThrows(InvalidRefreshTokenException.class,
+                () -> service.rotate(first));
+
+        // Assert
+        assertEquals("Refresh token has already been used", e.getMessage());
+        verify(repository).revokeFamily(saved.get(0).getFamilyId());
+        assertTrue(saved.stream().allMatch(RefreshToken::isRevoked));
+        assertThrows(InvalidRefreshTokenException.class, () -> service.rotate(second));
+    }
+
+    @Test
+    void rotate_UnknownToken_Throws() {
+        // Arrange
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(InvalidRefreshTokenException.class, () -> service.rotate("unknown"));
+        verify(repository, never()).revokeFamily(anyString());
+    }
+
+    @Test
+    void purgeExpired_KeepsRowsWithinRetention() {
+        // Arrange
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        Instant before = Instant.now();
+
+        // Act
+        service.purgeExpired();
+
+        // Assert
+        verify(repository).deleteExpiredBefore(cutoff.capture());
+        assertFalse(cutoff.getValue().isAfter(Instant.now().minus(Duration.ofDays(3))));
+        assertFalse(cutoff.getValue().isBefore(before.minus(Duration.ofDays(3))));
+    }
+}
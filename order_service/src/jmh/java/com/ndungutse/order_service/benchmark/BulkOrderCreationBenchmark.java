@@ -0,0 +1,98 @@
+package com.ndungutse.order_service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ndungutse.order_service.configuration.RabbitMQConfig;
+import com.ndungutse.order_service.model.Order;
+import com.ndungutse.order_service.model.OutboxEvent;
+
+// Orders/sec written by the single-order path (one transaction per order, as POST /api/v1/orders does)
+// and by the bulk path (one transaction for the whole request, as POST /api/v1/orders/bulk does).
+// Both persist an Order and its OutboxEvent per order, with the JPA settings of application.yml.
+// Start PostgreSQL first (docker compose up order_db), then run with:
+// mvn -Pjmh test-compile exec:exec -Djmh.include=BulkOrderCreation
+// Tables are created in a throwaway order_benchmark schema. The database defaults to docker-compose.yml's
+// and can be overridden with -Dorder.db.url, -Dorder.db.username and -Dorder.db.password.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkOrderCreationBenchmark {
+
+    private static final int ORDERS = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OutboxEvent.class)
+                .setProperty("hibernate.connection.url", System.getProperty("order.db.url",
+                        "jdbc:postgresql://localhost:5434/order_service?reWriteBatchedInserts=true"))
+                .setProperty("hibernate.connection.username", System.getProperty("order.db.username", "postgres"))
+                .setProperty("hibernate.connection.password", System.getProperty("order.db.password", "eric"))
+                .setProperty("hibernate.default_schema", "order_benchmark")
+                .setProperty("hibernate.hbm2ddl.create_namespaces", "true")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.id.optimizer.pooled.preferred", "pooled-lo")
+                .buildSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void singleOrderPerTransaction() {
+        for (int i = 0; i < ORDERS; i++) {
+            int item = i;
+            sessionFactory.inTransaction(session -> persist(session, item));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void bulkTransaction() {
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < ORDERS; i++) {
+                persist(session, i);
+            }
+        });
+    }
+
+    private void persist(Session session, int item) {
+        Order order = new Order(42L, 7L, "Catering order " + item, 12.5);
+        session.persist(order);
+        try {
+            session.persist(new OutboxEvent(order.getId(), RabbitMQConfig.QUEUE_NAME, Order.class.getName(),
+                    objectMapper.writeValueAsString(order)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
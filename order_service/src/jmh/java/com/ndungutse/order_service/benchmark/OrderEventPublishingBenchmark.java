@@ -0,0 +1,121 @@
+package com.ndungutse.order_service.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import com.ndungutse.order_service.model.Order;
+import com.ndungutse.order_service.service.OrderEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Messages/sec of the ways order_service can publish an order event, against a local broker.
+// Start RabbitMQ first (docker compose up rabbitmq), then run with:
+// mvn -Pjmh test-compile exec:exec -Djmh.include=OrderEventPublishing
+// Broker location and credentials default to docker-compose.yml's and can be overridden with
+// -Drabbitmq.host, -Drabbitmq.username and -Drabbitmq.password.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEventPublishingBenchmark {
+
+    private static final String QUEUE = "order_queue_benchmark";
+    private static final int BATCH = 100;
+
+    private CachingConnectionFactory plainConnectionFactory;
+    private CachingConnectionFactory confirmingConnectionFactory;
+    private RabbitAdmin admin;
+    private RabbitTemplate plainTemplate;
+    private RabbitTemplate confirmingTemplate;
+    private OrderEventPublisher publisher;
+    private Order order;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        plainConnectionFactory = connectionFactory(CachingConnectionFactory.ConfirmType.NONE);
+        confirmingConnectionFactory = connectionFactory(CachingConnectionFactory.ConfirmType.CORRELATED);
+
+        admin = new RabbitAdmin(plainConnectionFactory);
+        admin.declareQueue(new Queue(QUEUE, false));
+
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        plainTemplate = new RabbitTemplate(plainConnectionFactory);
+        plainTemplate.setMessageConverter(converter);
+        confirmingTemplate = new RabbitTemplate(confirmingConnectionFactory);
+        confirmingTemplate.setMessageConverter(converter);
+        publisher = new OrderEventPublisher(confirmingTemplate, new SimpleMeterRegistry(), 1000,
+                Duration.ofSeconds(5), 3, Duration.ofMillis(100));
+
+        order = new Order(42L, 7L, "Benchmark order", 12.5);
+        order.setId(1L);
+        message = converter.toMessage(order, new MessageProperties());
+    }
+
+    @TearDown
+    public void tearDown() {
+        publisher.destroy();
+        admin.deleteQueue(QUEUE);
+        plainConnectionFactory.destroy();
+        confirmingConnectionFactory.destroy();
+    }
+
+    // The path OrderService used before the outbox: one synchronous send, no confirm, so a lost
+    // message goes unnoticed
+    @Benchmark
+    public void convertAndSend() {
+        plainTemplate.convertAndSend(QUEUE, order);
+    }
+
+    // The same send, made safe by waiting for the broker's confirm before the next one
+    @Benchmark
+    public void convertAndSendAwaitingConfirm() throws Exception {
+        CorrelationData correlation = new CorrelationData();
+        confirmingTemplate.convertAndSend("", QUEUE, order, correlation);
+        correlation.getFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    // What OutboxRelay does: pipeline a batch through OrderEventPublisher and wait for all confirms once
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void publisherBatch() {
+        CompletableFuture<?>[] confirms = new CompletableFuture<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            confirms[i] = publisher.publish(QUEUE, message);
+        }
+        CompletableFuture.allOf(confirms).join();
+    }
+
+    private static CachingConnectionFactory connectionFactory(CachingConnectionFactory.ConfirmType confirmType) {
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory(
+                System.getProperty("rabbitmq.host", "localhost"));
+        connectionFactory.setUsername(System.getProperty("rabbitmq.username", "admin"));
+        connectionFactory.setPassword(System.getProperty("rabbitmq.password", "password"));
+        connectionFactory.setPublisherConfirmType(confirmType);
+        return connectionFactory;
+    }
+}
@@ -0,0 +1,39 @@
+package com.ndungutse.order_service.configuration;
+
+import java.time.Duration;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import com.ndungutse.order_service.security.RequestDeadline;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Bounds every transaction by the request's deadline: a transaction is not started once the deadline
+// has passed, and otherwise gets the remaining time as its timeout, which Spring applies to each JPA
+// query as the JDBC query timeout.
+public class DeadlineAwareJpaTransactionManager extends JpaTransactionManager {
+
+    public DeadlineAwareJpaTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        RequestDeadline.check();
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        Duration remaining = RequestDeadline.remaining();
+        if (remaining == null) {
+            return timeout;
+        }
+        // Transaction timeouts are in whole seconds, round up so a short budget is not cut to 0
+        int remainingSeconds = (int) Math.max(1, (remaining.toMillis() + 999) / 1000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds
+                : Math.min(timeout, remainingSeconds);
+    }
+}
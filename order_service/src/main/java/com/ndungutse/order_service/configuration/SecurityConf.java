@@ -42,6 +42,8 @@ public class SecurityConf {
                         .requestMatchers(HttpMethod.GET, "/api/v1/orders/resilience-checker", "/actuator/**")
                         .permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/orders/**").hasRole("CUSTOMER")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/orders/restaurant/*/export")
+                        .hasAnyRole("RESTAURANT_OWNER", "ADMIN")
                         .anyRequest().authenticated())
                 .httpBasic(AbstractHttpConfigurer::disable)
 
@@ -3,6 +3,9 @@ package com.ndungutse.order_service.controller;
 import java.util.List;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,10 +13,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.ndungutse.order_service.model.Order;
 import com.ndungutse.order_service.service.OrderService;
+import com.ndungutse.order_service.dto.BulkOrderResponse;
+import com.ndungutse.order_service.dto.OrderPage;
 import com.ndungutse.order_service.dto.OrderRequest;
 
 import lombok.RequiredArgsConstructor;
@@ -23,6 +30,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
+
     private final OrderService orderService;
 
     @PostMapping
@@ -37,6 +46,13 @@ public class OrderController {
         }
     }
 
+    // Per-item results, in request order. Invalid items are rejected without failing the others
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOrderResponse> createOrders(@RequestBody List<OrderRequest> orderRequests) {
+        BulkOrderResponse response = orderService.createOrders(orderRequests);
+        return new ResponseEntity<>(response, response.getCreated() > 0 ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
         Optional<Order> order = orderService.getOrderById(id);
@@ -49,15 +65,30 @@ public class OrderController {
         return new ResponseEntity<>("Good", HttpStatus.OK);
     }
 
+    // Newest first. Pass the returned nextCursor as cursor to get the next page
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getOrdersByCustomerId(@PathVariable Long customerId) {
-        List<Order> orders = orderService.getOrdersByCustomerId(customerId);
+    public ResponseEntity<OrderPage> getOrdersByCustomerId(@PathVariable Long customerId,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        OrderPage orders = orderService.getOrdersByCustomerId(customerId, cursor, size);
         return new ResponseEntity<>(orders, HttpStatus.OK);
     }
 
+    // Every order of the restaurant as NDJSON, streamed while it is read from the database
+    @GetMapping(value = "/restaurant/{restaurantId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOrdersByRestaurantId(@PathVariable Long restaurantId) {
+        StreamingResponseBody body = out -> {
+            long count = orderService.exportOrdersByRestaurantId(restaurantId, out);
+            logger.info("Exported {} orders of restaurant {}", count, restaurantId);
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders-" + restaurantId + ".ndjson\"")
+                .body(body);
+    }
+
     @GetMapping("/restaurant/{restaurantId}")
-    public ResponseEntity<List<Order>> getOrdersByRestaurantId(@PathVariable Long restaurantId) {
-        List<Order> orders = orderService.getOrdersByRestaurantId(restaurantId);
+    public ResponseEntity<OrderPage> getOrdersByRestaurantId(@PathVariable Long restaurantId,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        OrderPage orders = orderService.getOrdersByRestaurantId(restaurantId, cursor, size);
         return new ResponseEntity<>(orders, HttpStatus.OK);
     }
 
@@ -0,0 +1,14 @@
+package com.ndungutse.order_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BulkOrderResponse {
+    private int created;
+    private int rejected;
+    private List<BulkOrderResult> results;
+}
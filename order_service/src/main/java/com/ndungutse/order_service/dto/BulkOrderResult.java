@@ -0,0 +1,28 @@
+package com.ndungutse.order_service.dto;
+
+import com.ndungutse.order_service.model.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Outcome of one item of a bulk request, at the same index as in the request
+@AllArgsConstructor
+@Getter
+public class BulkOrderResult {
+    public enum Status {
+        CREATED, REJECTED
+    }
+
+    private int index;
+    private Status status;
+    private Order order;
+    private String error;
+
+    public static BulkOrderResult created(int index, Order order) {
+        return new BulkOrderResult(index, Status.CREATED, order, null);
+    }
+
+    public static BulkOrderResult rejected(int index, String error) {
+        return new BulkOrderResult(index, Status.REJECTED, null, error);
+    }
+}
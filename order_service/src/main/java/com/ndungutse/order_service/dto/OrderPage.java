@@ -0,0 +1,16 @@
+package com.ndungutse.order_service.dto;
+
+import java.util.List;
+
+import com.ndungutse.order_service.model.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A page of orders, newest first. nextCursor is null on the last page
+@AllArgsConstructor
+@Getter
+public class OrderPage {
+    private List<Order> items;
+    private String nextCursor;
+}
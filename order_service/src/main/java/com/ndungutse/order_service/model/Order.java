@@ -11,20 +11,28 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "orders")
+// Composite indexes back the keyset-paginated listings in OrderRepository
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_customer_created_id", columnList = "customer_id, created_at, id"),
+        @Index(name = "idx_orders_restaurant_created_id", columnList = "restaurant_id, created_at, id") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order implements java.io.Serializable {
 
+    // Same sequence and increment Hibernate derived before. Ids are handed out by the pooled-lo
+    // optimizer (see application.yml), so a batch of inserts needs one sequence call per 50 orders
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "customer_id", nullable = false)
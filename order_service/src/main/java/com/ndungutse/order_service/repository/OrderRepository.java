@@ -1,19 +1,52 @@
 package com.ndungutse.order_service.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ndungutse.order_service.model.Order;
 
+import jakarta.persistence.QueryHint;
+
+// Listings are newest first and paged by keyset: a page continues strictly after the (createdAt, id)
+// of the previous page's last order, so each page is an index range scan on the composite indexes
+// declared on Order, however deep it is.
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    // Find orders by customer ID
-    List<Order> findByCustomerId(Long customerId);
+    // First page of a customer's orders
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByCustomerId(@Param("customerId") Long customerId, Limit limit);
+
+    // Next page of a customer's orders, after the given order
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId AND (o.createdAt, o.id) < (:createdAt, :id)"
+            + " ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByCustomerIdAfter(@Param("customerId") Long customerId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // First page of a restaurant's orders
+    @Query("SELECT o FROM Order o WHERE o.restaurantId = :restaurantId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByRestaurantId(@Param("restaurantId") Long restaurantId, Limit limit);
+
+    // Next page of a restaurant's orders, after the given order
+    @Query("SELECT o FROM Order o WHERE o.restaurantId = :restaurantId AND (o.createdAt, o.id) < (:createdAt, :id)"
+            + " ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByRestaurantIdAfter(@Param("restaurantId") Long restaurantId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
 
-    // Find orders by restaurant ID
-    List<Order> findByRestaurantId(Long restaurantId);
+    // All of a restaurant's orders, oldest first, read through a JDBC cursor in batches of the fetch size.
+    // Must be consumed and closed inside a transaction, PostgreSQL only streams with auto-commit off
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT o FROM Order o WHERE o.restaurantId = :restaurantId ORDER BY o.createdAt, o.id")
+    Stream<Order> streamByRestaurantId(@Param("restaurantId") Long restaurantId);
 
 }
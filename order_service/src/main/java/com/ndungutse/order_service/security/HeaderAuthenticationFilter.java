@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,6 +31,16 @@ public class HeaderAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
+        // The gateway has already answered the caller, do not start the work
+        Duration budget = RequestDeadline.parse(request.getHeader(RequestDeadline.TIMEOUT_HEADER));
+        if (budget != null && budget.isZero()) {
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            return;
+        }
+        if (budget != null) {
+            RequestDeadline.start(budget);
+        }
+
         // Extract user information from headers
         String userId = request.getHeader(HEADER_USER_ID);
         String email = request.getHeader(HEADER_USER_EMAIL);
@@ -56,6 +68,10 @@ public class HeaderAuthenticationFilter extends OncePerRequestFilter {
         }
 
         // Continue with the filter chain
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
     }
 }
@@ -0,0 +1,53 @@
+package com.ndungutse.order_service.security;
+
+import java.time.Duration;
+
+import com.ndungutse.order_service.exception.DeadlineExceededException;
+
+// Deadline of the request handled by the current thread, from the gateway's X-Request-Timeout header
+// (milliseconds left when the gateway forwarded it). Requests without the header have no deadline.
+public final class RequestDeadline {
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(Duration budget) {
+        DEADLINE_NANOS.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    // Time left, never negative, or null when the request has no deadline
+    public static Duration remaining() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    // Abandon the work if the caller has already given up on it
+    public static void check() {
+        Duration remaining = remaining();
+        if (remaining != null && remaining.isZero()) {
+            throw new DeadlineExceededException("Request deadline exceeded");
+        }
+    }
+
+    // The budget in the header, or null when it is missing or not a number
+    public static Duration parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Duration.ofMillis(Math.max(0, Long.parseLong(header.trim())));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ndungutse.order_service.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Publishes without waiting for the broker. Every message is sent with correlation data and the returned
+// future completes when the broker confirms it, so callers can pipeline many sends and wait once.
+// At most max-in-flight messages are unconfirmed at a time: past that, publish blocks the caller until
+// confirms come back, which bounds memory. A nacked message is sent again, up to max-retries times.
+@Component
+public class OrderEventPublisher implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Duration sendTimeout;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    // Retries are not sent from the confirm callback, which runs on the connection's thread
+    private final ScheduledExecutorService retryExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("order-event-retry").daemon().factory());
+    private final Counter acked;
+    private final Counter nacked;
+    private final Counter retried;
+
+    public OrderEventPublisher(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry,
+            @Value("${order.publisher.max-in-flight:1000}") int maxInFlight,
+            @Value("${order.publisher.send-timeout:5s}") Duration sendTimeout,
+            @Value("${order.publisher.max-retries:3}") int maxRetries,
+            @Value("${order.publisher.retry-backoff:100ms}") Duration retryBackoff) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.sendTimeout = sendTimeout;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.acked = Counter.builder("order.publisher.messages").tag("result", "acked").register(meterRegistry);
+        this.nacked = Counter.builder("order.publisher.messages").tag("result", "nacked").register(meterRegistry);
+        this.retried = Counter.builder("order.publisher.messages").tag("result", "retried").register(meterRegistry);
+        Gauge.builder("order.publisher.in-flight", this, OrderEventPublisher::inFlight).register(meterRegistry);
+    }
+
+    // Sends the message to the queue through the default exchange. Blocks only while the in-flight
+    // window is full, and fails with AmqpTimeoutException if no room frees up within send-timeout.
+    // The future fails once the message has been nacked max-retries + 1 times.
+    public CompletableFuture<Void> publish(String routingKey, Message message) {
+        try {
+            if (!inFlight.tryAcquire(sendTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new AmqpTimeoutException(maxInFlight + " messages are still waiting for a confirm");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpTimeoutException("Interrupted while waiting to publish");
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        // The permit is released exactly once, when the message's outcome is final
+        result.whenComplete((ignored, error) -> inFlight.release());
+        send(routingKey, message, 0, result);
+        return result;
+    }
+
+    public int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private void send(String routingKey, Message message, int attempt, CompletableFuture<Void> result) {
+        String messageId = message.getMessageProperties().getMessageId();
+        CorrelationData correlation = messageId != null ? new CorrelationData(messageId) : new CorrelationData();
+        try {
+            rabbitTemplate.send("", routingKey, message, correlation);
+        } catch (AmqpException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+
+        correlation.getFuture().whenComplete((confirm, error) -> {
+            if (error == null && confirm.isAck()) {
+                acked.increment();
+                result.complete(null);
+                return;
+            }
+            String reason = error != null ? error.getMessage() : confirm.getReason();
+            nacked.increment();
+            if (attempt < maxRetries) {
+                retried.increment();
+                logger.debug("Message {} was nacked ({}), retry {}", correlation.getId(), reason, attempt + 1);
+                try {
+                    retryExecutor.schedule(() -> send(routingKey, message, attempt + 1, result),
+                            retryBackoff.toMillis() * (attempt + 1), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    result.completeExceptionally(e);
+                }
+            } else {
+                result.completeExceptionally(new AmqpException(
+                        "Message " + correlation.getId() + " was nacked " + (attempt + 1) + " times: " + reason));
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        retryExecutor.shutdownNow();
+    }
+}
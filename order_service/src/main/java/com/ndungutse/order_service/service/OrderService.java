@@ -1,36 +1,67 @@
 package com.ndungutse.order_service.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.filter.OrderedRequestContextFilter;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.ndungutse.order_service.configuration.RabbitMQConfig;
+import com.ndungutse.order_service.dto.BulkOrderResponse;
+import com.ndungutse.order_service.dto.BulkOrderResult;
+import com.ndungutse.order_service.dto.OrderCursor;
+import com.ndungutse.order_service.dto.OrderPage;
 import com.ndungutse.order_service.dto.OrderRequest;
 import com.ndungutse.order_service.model.Order;
 import com.ndungutse.order_service.model.OrderStatus;
+import com.ndungutse.order_service.model.OutboxEvent;
 import com.ndungutse.order_service.repository.OrderRepository;
+import com.ndungutse.order_service.repository.OutboxEventRepository;
 import com.ndungutse.order_service.security.UserPrincipal;
 
+import jakarta.persistence.EntityManager;
+
 @Service
 public class OrderService {
-    @Autowired
-    private RabbitTemplate rabbitTemplate;
     private static final String QUEUE_NAME = RabbitMQConfig.QUEUE_NAME;
 
     private final OrderRepository orderRepository;
-
-    public OrderService(OrderRepository orderRepository) {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final int maxPageSize;
+    private final int maxBulkSize;
+
+    public OrderService(OrderRepository orderRepository, OutboxEventRepository outboxEventRepository,
+            ObjectMapper objectMapper, EntityManager entityManager,
+            @Value("${order.page.max-size:100}") int maxPageSize,
+            @Value("${order.bulk.max-size:500}") int maxBulkSize) {
         this.orderRepository = orderRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.maxPageSize = maxPageSize;
+        this.maxBulkSize = maxBulkSize;
     }
 
     // Create a new order
+    @Transactional
     public Order createOrder(OrderRequest orderRequest) {
 
         Order order = new Order();
@@ -39,16 +70,57 @@ public class OrderService {
         order.setTotal_amount(orderRequest.getTotalAmount());
         order.setStatus(OrderStatus.PENDING);
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
         // Set customer ID from authenticated user
-        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
-        Long customerId = Long.parseLong(principal.getUserId());
-        order.setCustomerId(customerId);
+        order.setCustomerId(currentCustomerId());
+
+        // The order event is stored with the order and published to RabbitMQ by OutboxRelay
+        Order savedOrder = orderRepository.save(order);
+        outboxEventRepository.save(toOutboxEvent(savedOrder));
+        return savedOrder;
+    }
+
+    // Create every valid order of the request in one transaction. Invalid items are reported and skipped,
+    // they do not fail the others. Inserts and outbox events go to the database as JDBC batches.
+    @Transactional
+    public BulkOrderResponse createOrders(List<OrderRequest> orderRequests) {
+        if (orderRequests == null || orderRequests.isEmpty()) {
+            throw new IllegalArgumentException("At least one order is required");
+        }
+        if (orderRequests.size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " orders can be created at once");
+        }
+
+        Long customerId = currentCustomerId();
+        BulkOrderResult[] results = new BulkOrderResult[orderRequests.size()];
+        List<Integer> indexes = new ArrayList<>(orderRequests.size());
+        List<Order> orders = new ArrayList<>(orderRequests.size());
+        for (int i = 0; i < orderRequests.size(); i++) {
+            OrderRequest orderRequest = orderRequests.get(i);
+            try {
+                validateOrder(orderRequest);
+            } catch (IllegalArgumentException e) {
+                results[i] = BulkOrderResult.rejected(i, e.getMessage());
+                continue;
+            }
+            Order order = new Order(customerId, orderRequest.getRestaurantId(), orderRequest.getDescription(),
+                    orderRequest.getTotalAmount());
+            indexes.add(i);
+            orders.add(order);
+        }
 
-        // Send order to RabbitMQ queue
-        rabbitTemplate.convertAndSend(QUEUE_NAME, order);
-        return orderRepository.save(order);
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        outboxEventRepository.saveAll(savedOrders.stream().map(this::toOutboxEvent).toList());
+        for (int i = 0; i < savedOrders.size(); i++) {
+            results[indexes.get(i)] = BulkOrderResult.created(indexes.get(i), savedOrders.get(i));
+        }
+        return new BulkOrderResponse(savedOrders.size(), orderRequests.size() - savedOrders.size(),
+                List.of(results));
+    }
+
+    private static Long currentCustomerId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        return Long.parseLong(principal.getUserId());
     }
 
     // Get order by ID
@@ -56,19 +128,82 @@ public class OrderService {
         return orderRepository.findById(id);
     }
 
-    // Get orders by customer ID
-    public List<Order> getOrdersByCustomerId(Long customerId) {
-        return orderRepository.findByCustomerId(customerId);
+    // Get a page of a customer's orders, starting after the cursor, or from the newest when it is null
+    public OrderPage getOrdersByCustomerId(Long customerId, String cursor, int size) {
+        int pageSize = pageSize(size);
+        // One extra row tells whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+        if (cursor == null) {
+            return toPage(orderRepository.findFirstPageByCustomerId(customerId, limit), pageSize);
+        }
+        OrderCursor after = OrderCursor.decode(cursor);
+        return toPage(orderRepository.findPageByCustomerIdAfter(customerId, after.createdAt(), after.id(), limit),
+                pageSize);
+    }
+
+    // Get a page of a restaurant's orders, starting after the cursor, or from the newest when it is null
+    public OrderPage getOrdersByRestaurantId(Long restaurantId, String cursor, int size) {
+        int pageSize = pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        if (cursor == null) {
+            return toPage(orderRepository.findFirstPageByRestaurantId(restaurantId, limit), pageSize);
+        }
+        OrderCursor after = OrderCursor.decode(cursor);
+        return toPage(orderRepository.findPageByRestaurantIdAfter(restaurantId, after.createdAt(), after.id(),
+                limit), pageSize);
+    }
+
+    // Write all of a restaurant's orders to out as NDJSON, one order per line, oldest first.
+    // Rows are read through a JDBC cursor and detached once written, so memory use does not grow
+    // with the number of orders. Returns the number of orders written.
+    @Transactional(readOnly = true)
+    public long exportOrdersByRestaurantId(Long restaurantId, OutputStream out) throws IOException {
+        // Let the response buffer decide when to send, and keep the stream open between orders
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long count = 0;
+        try (Stream<Order> orders = orderRepository.streamByRestaurantId(restaurantId)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                writer.writeValue(out, order);
+                out.write('\n');
+                entityManager.detach(order);
+                count++;
+            }
+        }
+        out.flush();
+        return count;
     }
 
-    // Get orders by restaurant ID
-    public List<Order> getOrdersByRestaurantId(Long restaurantId) {
-        return orderRepository.findByRestaurantId(restaurantId);
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    private static OrderPage toPage(List<Order> orders, int pageSize) {
+        if (orders.size() <= pageSize) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> items = orders.subList(0, pageSize);
+        return new OrderPage(items, OrderCursor.after(items.get(pageSize - 1)).encode());
+    }
+
+    private OutboxEvent toOutboxEvent(Order order) {
+        try {
+            return new OutboxEvent(order.getId(), QUEUE_NAME, Order.class.getName(),
+                    objectMapper.writeValueAsString(order));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order " + order.getId(), e);
+        }
     }
 
     // Validate order before creation/update
     private void validateOrder(OrderRequest order) {
 
+        if (order == null) {
+            throw new IllegalArgumentException("Order is required");
+        }
         if (order.getRestaurantId() == null) {
             throw new IllegalArgumentException("Restaurant ID is required");
         }
@@ -0,0 +1,125 @@
+package com.ndungutse.order_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ndungutse.order_service.model.OutboxEvent;
+import com.ndungutse.order_service.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Publishes the outbox to RabbitMQ in the background. Each batch is locked, sent in one go through
+// OrderEventPublisher, and deleted once the broker has confirmed it. Unconfirmed events stay in the
+// outbox and are sent again on a later run, so delivery is at least once; consumers can dedupe on
+// the message id.
+@Component
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderEventPublisher orderEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final Counter published;
+    private final Counter failed;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OrderEventPublisher orderEventPublisher,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            @Value("${order.outbox.batch-size:100}") int batchSize,
+            @Value("${order.outbox.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderEventPublisher = orderEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.published = Counter.builder("order.outbox.events").tag("result", "published").register(meterRegistry);
+        this.failed = Counter.builder("order.outbox.events").tag("result", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval:500ms}")
+    public void relay() {
+        // Keep draining while full batches are confirmed, then wait for the next poll
+        Integer confirmed;
+        do {
+            confirmed = transactionTemplate.execute(status -> publishBatch());
+        } while (confirmed != null && confirmed == batchSize);
+    }
+
+    // Returns the number of events confirmed by the broker
+    int publishBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // Pipeline the whole batch, the publisher tracks the confirms and retries nacks
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(events.size());
+        try {
+            for (OutboxEvent event : events) {
+                confirms.add(orderEventPublisher.publish(event.getRoutingKey(), toMessage(event)));
+            }
+        } catch (AmqpException e) {
+            logger.warn("Stopped publishing outbox batch after {} events: {}", confirms.size(), e.getMessage());
+        }
+
+        // Then wait for the batch at once rather than for each message
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        List<OutboxEvent> confirmed = new ArrayList<>(confirms.size());
+        for (int i = 0; i < confirms.size(); i++) {
+            if (isConfirmed(events.get(i), confirms.get(i), deadline - System.nanoTime())) {
+                confirmed.add(events.get(i));
+            }
+        }
+
+        outboxEventRepository.deleteAllInBatch(confirmed);
+        published.increment(confirmed.size());
+        if (confirmed.size() < events.size()) {
+            failed.increment(events.size() - confirmed.size());
+            logger.warn("{} of {} outbox events were not confirmed, they will be retried",
+                    events.size() - confirmed.size(), events.size());
+        }
+        return confirmed.size();
+    }
+
+    private static boolean isConfirmed(OutboxEvent event, CompletableFuture<Void> confirm, long timeoutNanos) {
+        try {
+            confirm.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            logger.warn("Outbox event {} was not published: {}", event.getId(), e.getCause().getMessage());
+            return false;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId("order-outbox-" + event.getId());
+        properties.setHeader("__TypeId__", event.getPayloadType());
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,50 @@
+package com.ndungutse.order_service.dto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+public class OrderCursorTest {
+
+    private static String token(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decode_EncodedCursor_RoundTrips() {
+        // Arrange
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123_456_000), 42L);
+
+        // Act
+        String token = cursor.encode();
+
+        // Assert
+        assertFalse(token.contains("=") || token.contains("+") || token.contains("/"));
+        assertEquals(cursor, OrderCursor.decode(token));
+    }
+
+    @Test
+    void decode_NotBase64_ThrowsIllegalArgument() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("not a cursor!"));
+    }
+
+    @Test
+    void decode_MissingSeparator_ThrowsIllegalArgument() {
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> OrderCursor.decode(token("2025-06-01T12:30:15")));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+
+    @Test
+    void decode_BadDateOrId_ThrowsIllegalArgument() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(token("yesterday|42")));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(token("2025-06-01T12:30:15|abc")));
+    }
+}
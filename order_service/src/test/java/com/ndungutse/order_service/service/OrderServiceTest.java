@@ -0,0 +1,214 @@
+package com.ndungutse.order_service.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ndungutse.order_service.dto.BulkOrderResponse;
+import com.ndungutse.order_service.dto.BulkOrderResult;
+import com.ndungutse.order_service.dto.OrderCursor;
+import com.ndungutse.order_service.dto.OrderPage;
+import com.ndungutse.order_service.dto.OrderRequest;
+import com.ndungutse.order_service.model.Order;
+import com.ndungutse.order_service.model.OutboxEvent;
+import com.ndungutse.order_service.repository.OrderRepository;
+import com.ndungutse.order_service.repository.OutboxEventRepository;
+import com.ndungutse.order_service.security.UserPrincipal;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private OrderService orderService;
+    private final Long customerId = 7L;
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, outboxEventRepository,
+                JsonMapper.builder().findAndAddModules().build(), entityManager, 100, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void signIn() {
+        UserPrincipal principal = new UserPrincipal(customerId.toString(), "customer@example.com", "Customer",
+                "ROLE_CUSTOMER");
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    // Newest first, as the repository returns them
+    private List<Order> orders(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    Order order = new Order(customerId, 3L, "Order " + i, 10.0);
+                    order.setId(100L - i);
+                    order.setCreatedAt(now.minusMinutes(i));
+                    return order;
+                })
+                .toList();
+    }
+
+    @Test
+    void getOrdersByCustomerId_ExtraRow_ReturnsPageAndCursorOfLastItem() {
+        // Arrange
+        List<Order> rows = orders(3);
+        when(orderRepository.findFirstPageByCustomerId(customerId, Limit.of(3))).thenReturn(rows);
+
+        // Act
+        OrderPage page = orderService.getOrdersByCustomerId(customerId, null, 2);
+
+        // Assert
+        assertEquals(rows.subList(0, 2), page.getItems());
+        assertEquals(OrderCursor.after(rows.get(1)), OrderCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getOrdersByCustomerId_ExactlyPageSize_IsLastPage() {
+        // Arrange
+        List<Order> rows = orders(2);
+        when(orderRepository.findFirstPageByCustomerId(customerId, Limit.of(3))).thenReturn(rows);
+
+        // Act
+        OrderPage page = orderService.getOrdersByCustomerId(customerId, null, 2);
+
+        // Assert
+        assertEquals(rows, page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getOrdersByCustomerId_WithCursor_ContinuesAfterIt() {
+        // Arrange
+        OrderCursor cursor = new OrderCursor(now.minusMinutes(1), 99L);
+        List<Order> rows = orders(1);
+        when(orderRepository.findPageByCustomerIdAfter(customerId, cursor.createdAt(), cursor.id(), Limit.of(3)))
+                .thenReturn(rows);
+
+        // Act
+        OrderPage page = orderService.getOrdersByCustomerId(customerId, cursor.encode(), 2);
+
+        // Assert
+        assertEquals(rows, page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getOrdersByRestaurantId_SizeAboveMax_IsCapped() {
+        // Arrange
+        when(orderRepository.findFirstPageByRestaurantId(3L, Limit.of(101))).thenReturn(List.of());
+
+        // Act
+        OrderPage page = orderService.getOrdersByRestaurantId(3L, null, 10_000);
+
+        // Assert
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getOrdersByCustomerId_InvalidCursor_ThrowsIllegalArgument() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.getOrdersByCustomerId(customerId, "bogus!", 2));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOrders_InvalidItems_AreRejectedNextToSavedOnes() {
+        // Arrange
+        signIn();
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setId(500L + i);
+            }
+            return new ArrayList<>(orders);
+        });
+        List<OrderRequest> requests = Arrays.asList(
+                new OrderRequest(3L, "Pizza", 12.0),
+                new OrderRequest(null, "No restaurant", 5.0),
+                new OrderRequest(3L, "Salad", -1.0));
+
+        // Act
+        BulkOrderResponse response = orderService.createOrders(requests);
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getRejected());
+        List<BulkOrderResult> results = response.getResults();
+        assertEquals(BulkOrderResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(500L, results.get(0).getOrder().getId());
+        assertEquals(customerId, results.get(0).getOrder().getCustomerId());
+        assertEquals(BulkOrderResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Restaurant ID is required", results.get(1).getError());
+        assertEquals(BulkOrderResult.Status.REJECTED, results.get(2).getStatus());
+        assertEquals("Total amount cannot be negative", results.get(2).getError());
+        assertEquals(List.of(0, 1, 2), results.stream().map(BulkOrderResult::getIndex).toList());
+
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(events.capture());
+        assertEquals(List.of(500L), events.getValue().stream().map(OutboxEvent::getAggregateId).toList());
+    }
+
+    @Test
+    void createOrders_NullItem_IsRejected() {
+        // Arrange
+        signIn();
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        BulkOrderResponse response = orderService.createOrders(Arrays.asList(null, new OrderRequest(3L, "Tea", 2.0)));
+
+        // Assert
+        assertEquals(BulkOrderResult.Status.REJECTED, response.getResults().get(0).getStatus());
+        assertEquals("Order is required", response.getResults().get(0).getError());
+        assertEquals(BulkOrderResult.Status.CREATED, response.getResults().get(1).getStatus());
+    }
+
+    @Test
+    void createOrders_OverMaxSize_ThrowsBeforeSaving() {
+        // Arrange
+        List<OrderRequest> requests = IntStream.range(0, 4)
+                .mapToObj(i -> new OrderRequest(3L, "Order " + i, 1.0))
+                .toList();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrders(requests));
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrders(List.of()));
+        verifyNoInteractions(orderRepository, outboxEventRepository);
+    }
+}
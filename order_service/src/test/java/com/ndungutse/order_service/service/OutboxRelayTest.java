@@ -0,0 +1,120 @@
+package com.ndungutse.order_service.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ndungutse.order_service.model.OutboxEvent;
+import com.ndungutse.order_service.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OrderEventPublisher orderEventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, orderEventPublisher, transactionTemplate, meterRegistry,
+                4, Duration.ofMillis(50));
+    }
+
+    private static OutboxEvent event(long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateId(id);
+        event.setRoutingKey("order.placed");
+        event.setPayloadType("OrderPlacedEvent");
+        event.setPayload("{\"orderId\":" + id + "}");
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> deleted() {
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).deleteAllInBatch(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void publishBatch_PartialConfirms_DeletesOnlyConfirmedEvents() {
+        // Arrange
+        List<OutboxEvent> events = List.of(event(1), event(2), event(3), event(4));
+        when(outboxEventRepository.lockNextBatch(4)).thenReturn(events);
+        when(orderEventPublisher.publish(eq("order.placed"), any(Message.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("nack")))
+                .thenReturn(new CompletableFuture<>()) // never confirmed, times out
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        int confirmed = outboxRelay.publishBatch();
+
+        // Assert
+        assertEquals(2, confirmed);
+        assertEquals(List.of(events.get(0), events.get(3)), deleted());
+        assertEquals(2, meterRegistry.get("order.outbox.events").tag("result", "published").counter().count());
+        assertEquals(2, meterRegistry.get("order.outbox.events").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    void publishBatch_BrokerDownMidBatch_KeepsUnsentEvents() {
+        // Arrange
+        List<OutboxEvent> events = List.of(event(1), event(2), event(3));
+        when(outboxEventRepository.lockNextBatch(4)).thenReturn(events);
+        when(orderEventPublisher.publish(eq("order.placed"), any(Message.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenThrow(new AmqpConnectException(new ConnectException("refused")));
+
+        // Act
+        int confirmed = outboxRelay.publishBatch();
+
+        // Assert
+        assertEquals(1, confirmed);
+        assertEquals(List.of(events.get(0)), deleted());
+        verify(orderEventPublisher, times(2)).publish(any(), any());
+    }
+
+    @Test
+    void publishBatch_EmptyOutbox_PublishesNothing() {
+        // Arrange
+        when(outboxEventRepository.lockNextBatch(anyInt())).thenReturn(List.of());
+
+        // Act
+        int confirmed = outboxRelay.publishBatch();
+
+        // Assert
+        assertEquals(0, confirmed);
+        verifyNoInteractions(orderEventPublisher);
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+    }
+}
@@ -0,0 +1,55 @@
+package com.ndungutse.restaurant_service.client;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.ndungutse.restaurant_service.exception.DownstreamServiceUnavailableException;
+import com.ndungutse.restaurant_service.security.RequestDeadline;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+// Calls to order-service. Each call runs on the caller's thread behind a semaphore bulkhead, so a slow
+// order-service can only hold a bounded number of request threads, and a circuit breaker that fails fast
+// while order-service keeps failing. Both are configured under resilience4j.*.instances.order-service.
+@Component
+public class OrderServiceClient {
+    public static final String SERVICE_ID = "order-service";
+
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final String baseUrl;
+
+    public OrderServiceClient(RestTemplate restTemplate, CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            @Value("${services.order-service.url:http://order-service}") String baseUrl) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(SERVICE_ID);
+        this.bulkhead = bulkheadRegistry.bulkhead(SERVICE_ID);
+        this.baseUrl = baseUrl;
+    }
+
+    public String resilienceCheck() {
+        return call(() -> restTemplate.getForObject(baseUrl + "/api/v1/orders/resilience-checker", String.class));
+    }
+
+    private <T> T call(Supplier<T> request) {
+        // An expired request is not order-service's failure, do not let it count against the breaker
+        RequestDeadline.check();
+        try {
+            // Bulkhead outside the breaker, so a rejected call is not recorded as an order-service failure
+            return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, request)).get();
+        } catch (CallNotPermittedException | BulkheadFullException | RestClientException e) {
+            throw new DownstreamServiceUnavailableException("Order service is unavailable", e);
+        }
+    }
+}
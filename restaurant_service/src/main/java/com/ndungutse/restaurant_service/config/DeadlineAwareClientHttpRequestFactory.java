@@ -0,0 +1,57 @@
+package com.ndungutse.restaurant_service.config;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import com.ndungutse.restaurant_service.security.RequestDeadline;
+
+// Outbound calls made while handling a request never outlive it: waiting for a pooled connection and for
+// the response shrink to the request's remaining budget, which is also forwarded as X-Request-Timeout to
+// the next service. A call is not started at all once the deadline has passed.
+public class DeadlineAwareClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final Duration connectionRequestTimeout;
+    private final Duration readTimeout;
+
+    public DeadlineAwareClientHttpRequestFactory(HttpClient httpClient, Duration connectionRequestTimeout,
+            Duration readTimeout) {
+        super(httpClient);
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        this.readTimeout = readTimeout;
+        setConnectionRequestTimeout(connectionRequestTimeout);
+        setReadTimeout(readTimeout);
+    }
+
+    @Override
+    protected void postProcessHttpRequest(ClassicHttpRequest request) {
+        Duration remaining = RequestDeadline.remaining();
+        if (remaining != null) {
+            RequestDeadline.check();
+            request.setHeader(RequestDeadline.TIMEOUT_HEADER, String.valueOf(remaining.toMillis()));
+        }
+    }
+
+    // Called for every request, with the client's defaults
+    @Override
+    protected RequestConfig mergeRequestConfig(RequestConfig clientConfig) {
+        RequestConfig config = super.mergeRequestConfig(clientConfig);
+        Duration remaining = RequestDeadline.remaining();
+        if (remaining == null) {
+            return config;
+        }
+        return RequestConfig.copy(config)
+                .setConnectionRequestTimeout(timeout(connectionRequestTimeout, remaining))
+                .setResponseTimeout(timeout(readTimeout, remaining))
+                .build();
+    }
+
+    private static Timeout timeout(Duration configured, Duration remaining) {
+        Duration shortest = configured.compareTo(remaining) <= 0 ? configured : remaining;
+        return Timeout.ofMilliseconds(Math.max(1, shortest.toMillis()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ndungutse.restaurant_service.config;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// The RestTemplate every cross-service call goes through: service ids are resolved through Eureka,
+// connections are pooled and kept alive, and every call is bounded by timeouts and the request deadline.
+// Latency is recorded by RestTemplateBuilder as http.client.requests.
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpClientConnectionManager(
+            @Value("${http.client.max-connections:100}") int maxConnections,
+            @Value("${http.client.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${http.client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${http.client.connection-ttl:5m}") Duration connectionTtl) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        // Instances come and go behind Eureka, do not keep a connection forever
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+            @Value("${http.client.idle-timeout:30s}") Duration idleTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+    }
+
+    @Bean
+    @LoadBalanced
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient httpClient,
+            @Value("${http.client.connection-request-timeout:1s}") Duration connectionRequestTimeout,
+            @Value("${http.client.read-timeout:5s}") Duration readTimeout) {
+        return restTemplateBuilder
+                .requestFactory(() -> new DeadlineAwareClientHttpRequestFactory(httpClient, connectionRequestTimeout,
+                        readTimeout))
+                .build();
+    }
+
+    // http.client.connections{state=leased|available|pending} and http.client.connections.max
+    @Bean
+    public MeterBinder httpClientConnectionMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return registry -> {
+            Gauge.builder("http.client.connections", connectionManager, manager -> stats(manager).getLeased())
+                    .tag("state", "leased").description("Connections in use").register(registry);
+            Gauge.builder("http.client.connections", connectionManager, manager -> stats(manager).getAvailable())
+                    .tag("state", "available").description("Idle pooled connections").register(registry);
+            Gauge.builder("http.client.connections", connectionManager, manager -> stats(manager).getPending())
+                    .tag("state", "pending").description("Requests waiting for a connection").register(registry);
+            Gauge.builder("http.client.connections.max", connectionManager, manager -> stats(manager).getMax())
+                    .description("Maximum pooled connections").register(registry);
+        };
+    }
+
+    private static PoolStats stats(PoolingHttpClientConnectionManager connectionManager) {
+        return connectionManager.getTotalStats();
+    }
+}
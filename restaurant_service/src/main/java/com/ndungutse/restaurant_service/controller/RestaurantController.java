@@ -17,8 +17,8 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
+import com.ndungutse.restaurant_service.client.OrderServiceClient;
 import com.ndungutse.restaurant_service.dto.RestaurantDto;
 import com.ndungutse.restaurant_service.dto.RestaurantRequestDto;
 import com.ndungutse.restaurant_service.service.RestaurantService;
@@ -34,19 +34,16 @@ public class RestaurantController {
 
     private final RestaurantService restaurantService;
 
-    private final RestTemplate restTemplate;
-
-    private static final String RESTAURANT_SERVICE_URL = "http://localhost:9000/api/v1/orders/resilience-checker";
+    private final OrderServiceClient orderServiceClient;
 
     // Resilience checker endpoint
     @GetMapping("/resilience-checker")
     public ResponseEntity<String> resilienceChecker() {
         logger.info("Resilience check initiated");
 
-        ResponseEntity<String> response = restTemplate.getForEntity(RESTAURANT_SERVICE_URL,
-                String.class);
+        String response = orderServiceClient.resilienceCheck();
         logger.info("Resilience check successful");
-        return new ResponseEntity<>(response.getBody() + " From Order Service", HttpStatus.OK);
+        return new ResponseEntity<>(response + " From Order Service", HttpStatus.OK);
 
     }
 
@@ -0,0 +1,7 @@
+package com.ndungutse.restaurant_service.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ndungutse.restaurant_service.exception;
+
+public class DownstreamServiceUnavailableException extends RuntimeException {
+    public DownstreamServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
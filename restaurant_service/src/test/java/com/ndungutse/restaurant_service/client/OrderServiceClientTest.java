@@ -0,0 +1,69 @@
+package com.ndungutse.restaurant_service.client;
+
+import com.ndungutse.restaurant_service.exception.DownstreamServiceUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderServiceClientTest {
+
+    private static final String URL = "http://order-service/api/v1/orders/resilience-checker";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private OrderServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        client = new OrderServiceClient(restTemplate, circuitBreakerRegistry, BulkheadRegistry.ofDefaults(),
+                "http://order-service");
+    }
+
+    @Test
+    void resilienceCheck_Success_ReturnsBody() {
+        // Arrange
+        when(restTemplate.getForObject(URL, String.class)).thenReturn("OK");
+
+        // Act
+        String result = client.resilienceCheck();
+
+        // Assert
+        assertEquals("OK", result);
+    }
+
+    @Test
+    void resilienceCheck_IoFailure_ThrowsDownstreamServiceUnavailable() {
+        // Arrange
+        when(restTemplate.getForObject(URL, String.class)).thenThrow(new ResourceAccessException("Connection refused"));
+
+        // Act & Assert
+        assertThrows(DownstreamServiceUnavailableException.class, () -> client.resilienceCheck());
+        assertEquals(1, circuitBreakerRegistry.circuitBreaker(OrderServiceClient.SERVICE_ID)
+                .getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void resilienceCheck_OpenCircuit_FailsWithoutCallingOrderService() {
+        // Arrange
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(OrderServiceClient.SERVICE_ID);
+        circuitBreaker.transitionToOpenState();
+
+        // Act & Assert
+        assertThrows(DownstreamServiceUnavailableException.class, () -> client.resilienceCheck());
+        verifyNoInteractions(restTemplate);
+    }
+}
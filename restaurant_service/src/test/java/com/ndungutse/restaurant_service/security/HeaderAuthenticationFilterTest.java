@@ -0,0 +1,72 @@
+package com.ndungutse.restaurant_service.security;
+
+import com.ndungutse.restaurant_service.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeaderAuthenticationFilterTest {
+
+    private final HeaderAuthenticationFilter filter = new HeaderAuthenticationFilter();
+
+    @Test
+    void doFilter_WithBudget_SetsDeadlineForTheRequestOnly() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/restaurants");
+        request.addHeader(RequestDeadline.TIMEOUT_HEADER, "2000");
+        AtomicReference<Duration> remaining = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                remaining.set(RequestDeadline.remaining());
+            }
+        });
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertTrue(remaining.get().compareTo(Duration.ofMillis(2000)) <= 0);
+        assertTrue(remaining.get().compareTo(Duration.ofMillis(1000)) > 0);
+        assertNull(RequestDeadline.remaining());
+    }
+
+    @Test
+    void doFilter_ExpiredBudget_ReturnsGatewayTimeoutWithoutHandling() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/restaurants");
+        request.addHeader(RequestDeadline.TIMEOUT_HEADER, "0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(504, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void check_AfterDeadline_Throws() {
+        // Arrange
+        RequestDeadline.start(Duration.ZERO);
+
+        // Act & Assert
+        try {
+            assertThrows(DeadlineExceededException.class, RequestDeadline::check);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}